@@ -0,0 +1,85 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package io.github.minigamecore.plugin;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.helpers.NOPLogger;
+
+/**
+ * Measures the wall-clock time of the pre-initialization steps of
+ * {@link MinigameCore} run as a {@link StartupGraph}, against the same steps
+ * run one after another.
+ *
+ * <p>
+ *     The steps themselves need a running game, so every step only waits
+ *     for an estimated duration. A server logs its real numbers at startup,
+ *     in the line {@code Started in ... ms, the startup steps took ... ms in
+ *     total}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StartupGraphBenchmark {
+
+    // catalog, global, logs, injector, service, catalog-apply and configurations.
+    private static final long[] DURATIONS = {120L, 40L, 15L, 60L, 10L, 20L, 80L};
+
+    @Benchmark
+    public boolean graph() {
+        return run(false);
+    }
+
+    @Benchmark
+    public boolean sequential() {
+        return run(true);
+    }
+
+    // The dependencies of MinigameCore#onPreInitializationEarly, or every step depending on the one before it.
+    private static boolean run(boolean sequential) {
+        return new StartupGraph(() -> NOPLogger.NOP_LOGGER)
+                .step("catalog", () -> MILLISECONDS.sleep(DURATIONS[0]))
+                .step("global", () -> MILLISECONDS.sleep(DURATIONS[1]), sequential ? new String[] {"catalog"} : new String[0])
+                .step("logs", () -> MILLISECONDS.sleep(DURATIONS[2]), "global")
+                .step("injector", () -> MILLISECONDS.sleep(DURATIONS[3]), "logs")
+                .mainStep("service", () -> MILLISECONDS.sleep(DURATIONS[4]), "injector")
+                .mainStep("catalog-apply", () -> MILLISECONDS.sleep(DURATIONS[5]), "catalog", "service")
+                .step("configurations", () -> MILLISECONDS.sleep(DURATIONS[6]), sequential ? "catalog-apply" : "service")
+                .run(4);
+    }
+
+}
@@ -0,0 +1,183 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package io.github.minigamecore.plugin.config;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import ninja.leaping.configurate.ConfigurationOptions;
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+import ninja.leaping.configurate.hocon.HoconConfigurationLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Measures loading a few hundred synthetic configuration files by parsing
+ * them and from the {@link ConfigurationCache}, the score is the time per
+ * file.
+ *
+ * <p>
+ *     Parsing also reads and hashes the file, like
+ *     {@link ConfigurationFiles#load}, which remembers the hash. The cache
+ *     only reads the attributes of the file, the hash is stored in the
+ *     entry.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConfigurationCacheBenchmark {
+
+    private static final int FILES = 300;
+    private static final int SECTIONS = 20;
+    private static final int KEYS = 10;
+    private static final HashCode DEFAULTS = Hashing.murmur3_128().hashInt(0);
+
+    private final List<Path> files = new ArrayList<>();
+    private Path directory;
+    private ConfigurationCache cache;
+
+    @Setup
+    public void create() throws IOException {
+        final Random random = new Random(42L);
+
+        directory = Files.createTempDirectory("configs");
+        cache = new ConfigurationCache(directory.resolve("cache"));
+
+        for (int i = 0; i < FILES; i++) {
+            final Path file = directory.resolve("config-" + i + ".conf").toAbsolutePath();
+            Files.write(file, generate(random).getBytes(UTF_8));
+            files.add(file);
+
+            // Stamped as if the file was loaded later, a stamp taken right after the change never matches.
+            final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            final FileStamp stamp = FileStamp.of(attributes, attributes.lastModifiedTime().toMillis() + FileStamp.GRANULARITY + 1L);
+            cache.write(file, stamp, hash(file), DEFAULTS, parse(file));
+        }
+    }
+
+    @TearDown
+    public void delete() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILES)
+    public void parse(Blackhole blackhole) throws IOException {
+        for (Path file : files) {
+            blackhole.consume(hash(file));
+            blackhole.consume(parse(file));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILES)
+    public void cache(Blackhole blackhole) throws IOException {
+        for (Path file : files) {
+            final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            final ConfigurationCache.Entry entry = cache.read(file, attributes, DEFAULTS, ConfigurationOptions.defaults());
+
+            if (entry == null) {
+                throw new IllegalStateException(file + " is not cached");
+            }
+
+            blackhole.consume(entry.node);
+        }
+    }
+
+    // Sections of commented keys, like the configurations of a minigame.
+    private static String generate(Random random) {
+        final StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < SECTIONS; i++) {
+            builder.append("# Section ").append(i).append('\n').append("section-").append(i).append(" {\n");
+
+            for (int j = 0; j < KEYS; j++) {
+                builder.append("    # The value of key ").append(j).append(".\n    key-").append(j).append(" = ");
+
+                switch (random.nextInt(4)) {
+                    case 0:
+                        builder.append(random.nextInt(1000));
+                        break;
+                    case 1:
+                        builder.append(random.nextBoolean());
+                        break;
+                    case 2:
+                        builder.append('"').append(Long.toHexString(random.nextLong())).append('"');
+                        break;
+                    default:
+                        builder.append('[').append(random.nextInt(10)).append(", ").append(random.nextInt(10)).append(']');
+                }
+
+                builder.append('\n');
+            }
+
+            builder.append("}\n");
+        }
+
+        return builder.toString();
+    }
+
+    private static HashCode hash(Path file) throws IOException {
+        return Hashing.murmur3_128().hashBytes(Files.readAllBytes(file));
+    }
+
+    private static CommentedConfigurationNode parse(Path file) throws IOException {
+        return HoconConfigurationLoader.builder().setPath(file).build().load();
+    }
+
+}
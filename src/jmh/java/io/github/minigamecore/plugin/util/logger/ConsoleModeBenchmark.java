@@ -0,0 +1,131 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.util.logger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.Level;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures the time a tick spends logging 100 records with the sync and the
+ * async console mode.
+ *
+ * <p>
+ *     In sync mode the tick writes every line to the console itself. In
+ *     async mode it only buffers the records, the buffer is drained to the
+ *     console after every tick, outside the measured time, like the
+ *     {@code -A-642} task does. The console is a file written without a
+ *     buffer, like an appender flushing every line.
+ * </p>
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConsoleModeBenchmark {
+
+    private static final int RECORDS = 100;
+    private static final String FORMAT = "Player {} scored {} points.";
+    private static final MinigameCoreLogger LOGGER = new MinigameCoreLogger("benchmark");
+
+    private final LogBuffer buffer = new LogBuffer(LoggingSettings.DEFAULT, () -> {
+    }, null);
+    private Path file;
+    private OutputStream console;
+    private int tick;
+
+    @Setup
+    public void open() throws IOException {
+        file = Files.createTempFile("console", ".log");
+        console = new FileOutputStream(file.toFile());
+    }
+
+    @TearDown
+    public void close() throws IOException {
+        console.close();
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public void sync() {
+        tick++;
+
+        for (int i = 0; i < RECORDS; i++) {
+            print(MessageFormatter.format(FORMAT, tick, i).getMessage());
+        }
+    }
+
+    @Benchmark
+    public void async() {
+        tick++;
+
+        for (int i = 0; i < RECORDS; i++) {
+            if (!buffer.offer(MinigameCoreLoggerUtil.epochNanos(), Level.INFO, LOGGER, null, LogRecord.CONSOLE, FORMAT, 2, tick, i, null,
+                    null)) {
+                print(MessageFormatter.format(FORMAT, tick, i).getMessage());
+            }
+        }
+    }
+
+    // The work of the console task, not part of the tick.
+    @TearDown(org.openjdk.jmh.annotations.Level.Invocation)
+    public void drain() {
+        //noinspection StatementWithEmptyBody
+        while (buffer.drain(record -> print(record.render().getMessage()), 512) == 512) {
+        }
+    }
+
+    private void print(String message) {
+        try {
+            console.write(("[INFO] [minigamecore|benchmark]: " + message + System.lineSeparator()).getBytes(UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,211 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.util.logger;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.Level;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures appends to the {@link LogRingBuffer} and to a locked list like
+ * the one it replaced, with 1, 4 and 16 producing threads and one thread
+ * draining in batches.
+ *
+ * <p>
+ *     The {@code appended} counter is the number of records that got into
+ *     the buffer, {@code full} the number that found it full.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogRingBufferBenchmark {
+
+    private static final int CAPACITY = 8192;
+    private static final int BATCH = 512;
+    private static final String MESSAGE = "Player scored 42 points.";
+    private static final MinigameCoreLogger LOGGER = new MinigameCoreLogger("benchmark");
+
+    @Benchmark
+    @Group("ring1")
+    @GroupThreads(1)
+    public void ring1Append(Ring ring, Counters counters) {
+        counters.count(ring.append());
+    }
+
+    @Benchmark
+    @Group("ring1")
+    public int ring1Drain(Ring ring) {
+        return ring.drain();
+    }
+
+    @Benchmark
+    @Group("ring4")
+    @GroupThreads(4)
+    public void ring4Append(Ring ring, Counters counters) {
+        counters.count(ring.append());
+    }
+
+    @Benchmark
+    @Group("ring4")
+    public int ring4Drain(Ring ring) {
+        return ring.drain();
+    }
+
+    @Benchmark
+    @Group("ring16")
+    @GroupThreads(16)
+    public void ring16Append(Ring ring, Counters counters) {
+        counters.count(ring.append());
+    }
+
+    @Benchmark
+    @Group("ring16")
+    public int ring16Drain(Ring ring) {
+        return ring.drain();
+    }
+
+    @Benchmark
+    @Group("locked1")
+    @GroupThreads(1)
+    public void locked1Append(LockedList list, Counters counters) {
+        counters.count(list.append());
+    }
+
+    @Benchmark
+    @Group("locked1")
+    public int locked1Drain(LockedList list) {
+        return list.drain();
+    }
+
+    @Benchmark
+    @Group("locked4")
+    @GroupThreads(4)
+    public void locked4Append(LockedList list, Counters counters) {
+        counters.count(list.append());
+    }
+
+    @Benchmark
+    @Group("locked4")
+    public int locked4Drain(LockedList list) {
+        return list.drain();
+    }
+
+    @Benchmark
+    @Group("locked16")
+    @GroupThreads(16)
+    public void locked16Append(LockedList list, Counters counters) {
+        counters.count(list.append());
+    }
+
+    @Benchmark
+    @Group("locked16")
+    public int locked16Drain(LockedList list) {
+        return list.drain();
+    }
+
+    @State(Scope.Group)
+    public static class Ring {
+
+        private final LogRingBuffer ring = new LogRingBuffer(CAPACITY);
+
+        boolean append() {
+            final long sequence = ring.claim();
+
+            if (sequence < 0) {
+                return false;
+            }
+
+            ring.slot(sequence).set(0L, Level.INFO, LOGGER, null, LogRecord.SAVE, MESSAGE, 0, null, null, null, null);
+            ring.publish(sequence);
+            return true;
+        }
+
+        int drain() {
+            return ring.drain(record -> {
+            }, BATCH);
+        }
+
+    }
+
+    // The ArrayList the ring buffer replaced, made safe with a lock and bounded like the ring.
+    @State(Scope.Group)
+    public static class LockedList {
+
+        private final List<String> records = new ArrayList<>();
+
+        synchronized boolean append() {
+            return records.size() < CAPACITY && records.add(MESSAGE);
+        }
+
+        int drain() {
+            final List<String> drained;
+
+            synchronized (this) {
+                drained = new ArrayList<>(records);
+                records.clear();
+            }
+
+            return drained.size();
+        }
+
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+
+        public long appended;
+        public long full;
+
+        void count(boolean added) {
+            if (added) {
+                appended++;
+            } else {
+                full++;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package io.github.minigamecore.plugin.util.logger;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+import ninja.leaping.configurate.hocon.HoconConfigurationLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * Measures reading a logging setting from a {@link LoggingSettings} snapshot,
+ * as bound by {@code ConfigurationBinding}, against walking the node of the
+ * default {@code global.conf} for every read, and the cost of building the
+ * snapshot on a load.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingSettingsBenchmark {
+
+    private CommentedConfigurationNode root;
+    // Published like the snapshot of a binding.
+    private volatile LoggingSettings snapshot;
+
+    @Setup
+    public void load() throws IOException {
+        final URL global = LoggingSettingsBenchmark.class.getResource("/assets/minigamecore/config/global.conf");
+        checkState(global != null, "global.conf is not on the class path");
+
+        root = HoconConfigurationLoader.builder().setURL(global).build().load();
+        snapshot = LoggingSettings.from(root.getNode("logging"));
+    }
+
+    @Benchmark
+    public long node() {
+        return root.getNode("logging", "flush").getLong(15L);
+    }
+
+    @Benchmark
+    public long snapshot() {
+        return snapshot.flush;
+    }
+
+    @Benchmark
+    public LoggingSettings build() {
+        return LoggingSettings.from(root.getNode("logging"));
+    }
+
+}
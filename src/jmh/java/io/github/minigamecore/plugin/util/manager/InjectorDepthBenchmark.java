@@ -0,0 +1,141 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package io.github.minigamecore.plugin.util.manager;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.name.Names;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link Injector#getInstance(Key)} against the depth of the
+ * injector chain, next to the flat injector that
+ * {@link GuiceManagerImpl#build()} creates from the same modules.
+ *
+ * <p>
+ *     Every module binds one named string. The lookups are of the binding
+ *     of the first module, the deepest one in a chain, and of a class that
+ *     is not bound, which gets a just-in-time binding.
+ * </p>
+ *
+ * <p>
+ *     On Java 9 and later Guice 4.1 also needs
+ *     {@code --add-opens java.base/java.lang=ALL-UNNAMED}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InjectorDepthBenchmark {
+
+    private static final Key<String> FIRST = Key.get(String.class, Names.named("module-0"));
+
+    @Param({"1", "4", "16", "64"})
+    public int depth;
+
+    private Injector chained;
+    private Injector flat;
+
+    @Setup
+    public void build() {
+        final Injector root = Guice.createInjector();
+        final GuiceManagerImpl manager = new GuiceManagerImpl();
+
+        manager.setInjector(root);
+        chained = root;
+
+        for (int i = 0; i < depth; i++) {
+            final Module module = new NamedModule("module-" + i);
+
+            // One child injector for each module, like the registrations before the injector was built once.
+            chained = chained.createChildInjector(module);
+            manager.registerChildInjector(module);
+        }
+
+        manager.build();
+        flat = manager.getInjector();
+    }
+
+    @Benchmark
+    public String chained() {
+        return chained.getInstance(FIRST);
+    }
+
+    @Benchmark
+    public String flat() {
+        return flat.getInstance(FIRST);
+    }
+
+    @Benchmark
+    public Unbound chainedUnbound() {
+        return chained.getInstance(Unbound.class);
+    }
+
+    @Benchmark
+    public Unbound flatUnbound() {
+        return flat.getInstance(Unbound.class);
+    }
+
+    private static final class NamedModule extends AbstractModule {
+
+        private final String name;
+
+        NamedModule(String name) {
+            this.name = name;
+        }
+
+        @Override
+        protected void configure() {
+            bind(String.class).annotatedWith(Names.named(name)).toInstance(name);
+        }
+
+    }
+
+    // Gets a just-in-time binding.
+    public static final class Unbound {
+
+    }
+
+}
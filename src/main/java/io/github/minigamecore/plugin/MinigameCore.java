@@ -26,6 +26,7 @@
 package io.github.minigamecore.plugin;
 
 import static java.time.LocalDate.now;
+import static org.spongepowered.api.Sponge.getCommandManager;
 import static org.spongepowered.api.Sponge.getServiceManager;
 import static org.spongepowered.api.event.Order.EARLY;
 import static org.spongepowered.api.event.Order.LATE;
@@ -34,6 +35,10 @@
 import com.google.inject.Injector;
 import io.github.minigamecore.api.MinigameService;
 import io.github.minigamecore.api.util.config.ConfigurationManager;
+import io.github.minigamecore.api.util.manager.GuiceManager;
+import io.github.minigamecore.plugin.command.ConfigurationCommand;
+import io.github.minigamecore.plugin.command.LogCommand;
+import io.github.minigamecore.plugin.command.TraceCommand;
 import io.github.minigamecore.plugin.config.ConfigurationManagerImpl;
 import io.github.minigamecore.plugin.config.Configurations;
 import io.github.minigamecore.plugin.util.logger.MinigameCoreLogger;
@@ -41,17 +46,23 @@
 import io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil;
 import io.github.minigamecore.plugin.util.manager.GuiceManagerImpl;
 import io.github.minigamecore.plugin.util.manager.MasterModule;
+import io.github.minigamecore.plugin.util.reflect.CatalogMappings;
 import io.github.minigamecore.plugin.util.reflect.CatalogTypeApplier;
+import io.github.minigamecore.plugin.util.trace.Tracer;
 import org.slf4j.Logger;
+import org.spongepowered.api.command.spec.CommandSpec;
 import org.spongepowered.api.config.ConfigDir;
 import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.game.GameReloadEvent;
+import org.spongepowered.api.event.game.state.GameInitializationEvent;
 import org.spongepowered.api.event.game.state.GamePreInitializationEvent;
 import org.spongepowered.api.event.game.state.GameStoppingEvent;
 import org.spongepowered.api.plugin.Plugin;
 import org.spongepowered.api.plugin.PluginContainer;
+import org.spongepowered.api.text.Text;
 
 import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
 
 /*
  * The main class for MinigameCore.
@@ -59,9 +70,12 @@
 @Plugin(authors = {"Flibio", "KingGoesGaming"}, id = "minigamecore", url = "http://minigamecore.github.io/")
 public final class MinigameCore {
 
+    private static final int STARTUP_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
     private final Path configDir;
     private Injector defaultInjector;
-    private Logger logger;
+    // Replaced by the injector step on a startup thread while other steps log.
+    private volatile Logger logger;
     private final PluginContainer pluginContainer;
 
     @Inject
@@ -80,37 +94,80 @@ public void onPreInitializationEarly(final GamePreInitializationEvent event) {
         // These log messages are not logged to logs/minigamecore/*.log files.
         logger.info("Starting minigamecore");
 
-        Configurations.register(); // Register our configurations
-        Configurations.loadGlobal(getLogger()); // Load global.conf
-        Configurations.saveGlobal(getLogger());
-
-        MinigameCoreLoggerUtil.createLogFile(this, now().toString(), getLogger()); // Creates logs/minigamecore/*.log files.
-
-        defaultInjector = defaultInjector.createChildInjector(binder -> binder.install(new MinigameCoreLoggerModule()));
-        logger = defaultInjector.getInstance(MinigameCoreLogger.class);
-        getLogger().debug("Default logger no longer used.");
-
-        defaultInjector = defaultInjector.createChildInjector(binder -> binder.install(new MasterModule()));
-
-        MinigameService service = defaultInjector.getInstance(MinigameService.class);
-        getServiceManager().setProvider(this, MinigameService.class, service);
-        ((GuiceManagerImpl)service.getGuiceManager()).setInjector(defaultInjector);
-        service.getConfigurationManager().save(this);
-        service.getGuiceManager().getInjector().getInstance(CatalogTypeApplier.class).apply();
-
-        Configurations.getAll().forEach(configuration -> defaultInjector.getInstance(ConfigurationManager.class).register(this, configuration));
-
-        ((ConfigurationManagerImpl) service.getConfigurationManager()).loadAllConfigurations();
+        final AtomicReference<CatalogMappings> catalog = new AtomicReference<>();
+        final AtomicReference<MinigameService> service = new AtomicReference<>();
+        final Tracer.Span span = Tracer.start("startup", "pre-initialization");
+
+        try {
+            // Steps that use the game run on this thread, the catalog is read while the configurations and logs are set up.
+            final StartupGraph startup = new StartupGraph(this::getLogger)
+                    .step("catalog", () -> catalog.set(CatalogTypeApplier.discover(this)))
+                    .step("global", () -> {
+                        Configurations.register(); // Register our configurations
+                        Configurations.loadGlobal(getLogger()); // Load global.conf
+                        Configurations.saveGlobal(getLogger());
+                    })
+                    .step("logs", () -> MinigameCoreLoggerUtil.createLogFile(this, now().toString(), getLogger()), "global")
+                    .step("injector", () -> {
+                        // One child injector for both, the logger bindings are installed first.
+                        defaultInjector = defaultInjector.createChildInjector(new MinigameCoreLoggerModule(), new MasterModule());
+                        logger = defaultInjector.getInstance(MinigameCoreLogger.class);
+                        getLogger().debug("Default logger no longer used.");
+                    }, "logs")
+                    .mainStep("service", () -> {
+                        service.set(defaultInjector.getInstance(MinigameService.class));
+                        getServiceManager().setProvider(this, MinigameService.class, service.get());
+                        ((GuiceManagerImpl) service.get().getGuiceManager()).setInjector(defaultInjector);
+                        service.get().getConfigurationManager().save(this);
+                    }, "injector")
+                    .mainStep("catalog-apply", () -> service.get().getGuiceManager().getInjector().getInstance(CatalogTypeApplier.class)
+                            .apply(catalog.get()), "catalog", "service")
+                    .step("configurations", () -> {
+                        final ConfigurationManagerImpl configurationManager = (ConfigurationManagerImpl) service.get().getConfigurationManager();
+                        Configurations.getAll().forEach(configuration -> configurationManager.register(this, configuration));
+
+                        configurationManager.loadAllConfigurations();
+                        configurationManager.onChange(this, configuration -> {
+                            if (Configurations.get("global").filter(configuration::equals).isPresent()) {
+                                MinigameCoreLoggerUtil.cancelTask(this);
+                                MinigameCoreLoggerUtil.schedule(this); // Picks up the changed logging settings.
+                            }
+                        });
+                    }, "service");
+
+            if (!startup.run(STARTUP_THREADS)) {
+                throw new IllegalStateException("MinigameCore failed to start", startup.getFailure());
+            }
+        } finally {
+            span.close();
+        }
     }
 
     @Listener(order = LATE)
     public void onPreInitLate(final GamePreInitializationEvent event) {
-        ((ConfigurationManagerImpl) defaultInjector.getInstance(ConfigurationManager.class)).saveAllConfigurations();
+        // Every plugin registered its modules by now.
+        ((GuiceManagerImpl) defaultInjector.getInstance(GuiceManager.class)).build();
+
+        // Nothing waits for these files, later loads and saves are queued behind them.
+        ((ConfigurationManagerImpl) defaultInjector.getInstance(ConfigurationManager.class)).saveAllAsync();
+    }
+
+    @Listener
+    public void onInitialization(final GameInitializationEvent event) {
+        getCommandManager().register(this, CommandSpec.builder()
+                .description(Text.of("The MinigameCore commands."))
+                .child(LogCommand.create(this), "log")
+                .child(ConfigurationCommand.create(), "config")
+                .child(TraceCommand.create(this), "trace")
+                .build(), "minigamecore", "mgc");
     }
 
     @Listener(order = LATE)
     public void onStoppingLate(final GameStoppingEvent event) {
-        ((ConfigurationManagerImpl) getServiceManager().provideUnchecked(MinigameService.class).getConfigurationManager()).saveAllConfigurations();
+        final ConfigurationManagerImpl configurationManager = (ConfigurationManagerImpl) getServiceManager()
+                .provideUnchecked(MinigameService.class).getConfigurationManager();
+        configurationManager.stopWatching();
+        configurationManager.saveAllConfigurations();
 
         // Save log file to a compressed log file and delete the log file itself.
         // Should the compressing fail, the original file should exist.
@@ -125,11 +182,36 @@ public void onStoppingLate(final GameStoppingEvent event) {
     public void onReload(final GameReloadEvent event) {
         getLogger().info("Reloading minigamecore");
 
-        MinigameCoreLoggerUtil.cancelTask(this);
-        MinigameCoreLoggerUtil.flush(getLogger());
-        MinigameCoreLoggerUtil.schedule(this);
+        final Tracer.Span reload = Tracer.start("reload", "reload");
+
+        try {
+            final Tracer.Span flush = Tracer.start("reload", "flush");
+
+            try {
+                MinigameCoreLoggerUtil.cancelTask(this);
+                MinigameCoreLoggerUtil.flush(getLogger());
+            } finally {
+                flush.close();
+            }
+
+            final Tracer.Span configurations = Tracer.start("reload", "configurations");
+
+            try {
+                ((ConfigurationManagerImpl) defaultInjector.getInstance(ConfigurationManager.class)).loadAllConfigurations();
+            } finally {
+                configurations.close();
+            }
+
+            final Tracer.Span logs = Tracer.start("reload", "logs");
 
-        ((ConfigurationManagerImpl) defaultInjector.getInstance(ConfigurationManager.class)).loadAllConfigurations();
+            try {
+                MinigameCoreLoggerUtil.schedule(this); // Picks up the reloaded logging settings.
+            } finally {
+                logs.close();
+            }
+        } finally {
+            reload.close();
+        }
 
         getLogger().info("Reloaded minigamecore");
     }
@@ -0,0 +1,236 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.github.minigamecore.plugin.util.trace.Tracer;
+import org.slf4j.Logger;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+/**
+ * Runs the startup steps of MinigameCore as a graph of dependencies.
+ *
+ * <p>
+ *     A step starts once all of its dependencies completed. Steps that use
+ *     the game, such as registering services or changing catalog fields, run
+ *     on the thread calling {@link #run(int)}, every other step runs on a
+ *     startup pool. {@link #run(int)} returns once every step completed or
+ *     was skipped because a dependency failed.
+ * </p>
+ */
+final class StartupGraph {
+
+    private final Supplier<Logger> logger;
+    private final Map<String, Step> steps = new LinkedHashMap<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * Creates a new graph.
+     *
+     * @param logger Gets the logger, it may change while the steps run
+     */
+    StartupGraph(Supplier<Logger> logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Adds a step that runs on the startup pool.
+     *
+     * @param name The name of the step
+     * @param task The task
+     * @param dependencies The names of the steps that have to complete first,
+     *     they have to be added already
+     * @return This graph
+     */
+    StartupGraph step(String name, Task task, String... dependencies) {
+        return add(new Step(name, task, false, Arrays.asList(dependencies)));
+    }
+
+    /**
+     * Adds a step that runs on the thread calling {@link #run(int)}.
+     *
+     * @see #step(String, Task, String...)
+     */
+    StartupGraph mainStep(String name, Task task, String... dependencies) {
+        return add(new Step(name, task, true, Arrays.asList(dependencies)));
+    }
+
+    /**
+     * Runs all steps.
+     *
+     * @param threads The size of the startup pool
+     * @return If every step completed
+     */
+    boolean run(int threads) {
+        final ExecutorService pool = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+                .setNameFormat("minigamecore-startup-%d")
+                .setDaemon(true)
+                .build());
+        final BlockingQueue<Runnable> mainQueue = new LinkedBlockingQueue<>();
+        final Executor main = mainQueue::add;
+        final Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+        final long start = System.nanoTime();
+
+        for (Step step : steps.values()) {
+            final CompletableFuture<?>[] dependencies = step.dependencies.stream().map(futures::get).toArray(CompletableFuture[]::new);
+            futures.put(step.name, CompletableFuture.allOf(dependencies).thenRunAsync(step::run, step.main ? main : pool));
+        }
+
+        final CompletableFuture<Void> all = CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[futures.size()]));
+        boolean interrupted = false;
+
+        // Works off the main steps until everything is done.
+        while (!all.isDone() || !mainQueue.isEmpty()) {
+            try {
+                final Runnable task = mainQueue.poll(10L, MILLISECONDS);
+
+                if (task != null) {
+                    task.run();
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        pool.shutdown();
+        return report(futures, System.nanoTime() - start);
+    }
+
+    /**
+     * Gets what the first step that failed threw.
+     *
+     * @return The failure, or {@code null} if no step failed
+     */
+    @Nullable
+    Throwable getFailure() {
+        return failure.get();
+    }
+
+    private StartupGraph add(Step step) {
+        checkNotNull(step.name, "name");
+        checkArgument(!steps.containsKey(step.name), "%s was already added", step.name);
+        step.dependencies.forEach(dependency -> checkArgument(steps.containsKey(dependency), "%s depends on unknown step %s", step.name,
+                dependency));
+
+        steps.put(step.name, step);
+        return this;
+    }
+
+    private boolean report(Map<String, CompletableFuture<Void>> futures, long wall) {
+        long work = 0;
+        boolean success = true;
+
+        for (Step step : steps.values()) {
+            work += step.nanos;
+
+            if (futures.get(step.name).isCompletedExceptionally()) {
+                success = false;
+
+                if (!step.failed) {
+                    logger.get().error("Startup step {} was skipped, a step it depends on failed.", step.name);
+                }
+            }
+        }
+
+        logger.get().info("Started in {} ms, the startup steps took {} ms in total.", wall / 1000000L, work / 1000000L);
+        return success;
+    }
+
+    /**
+     * A startup task.
+     */
+    @FunctionalInterface
+    interface Task {
+
+        void run() throws Exception;
+
+    }
+
+    private final class Step {
+
+        final String name;
+        final Task task;
+        final boolean main;
+        final List<String> dependencies;
+        // Written by the step itself, read once all steps are done.
+        volatile long nanos;
+        volatile boolean failed;
+
+        Step(String name, Task task, boolean main, List<String> dependencies) {
+            this.name = name;
+            this.task = checkNotNull(task, "task");
+            this.main = main;
+            this.dependencies = dependencies;
+        }
+
+        void run() {
+            final long start = System.nanoTime();
+            final Tracer.Span span = Tracer.start("startup", name);
+
+            try {
+                task.run();
+            } catch (Throwable e) {
+                failed = true;
+                failure.compareAndSet(null, e);
+                logger.get().error("Startup step " + name + " failed.", e);
+
+                if (e instanceof Error) {
+                    throw (Error) e;
+                }
+
+                throw new CompletionException(e);
+            } finally {
+                span.close();
+                nanos = System.nanoTime() - start;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.command;
+
+import static java.lang.String.format;
+import static org.spongepowered.api.Sponge.getServiceManager;
+import static org.spongepowered.api.command.args.GenericArguments.integer;
+import static org.spongepowered.api.command.args.GenericArguments.optional;
+
+import io.github.minigamecore.api.MinigameService;
+import io.github.minigamecore.plugin.config.ConfigurationStats;
+import io.github.minigamecore.plugin.service.MinigameServiceImpl;
+import org.spongepowered.api.command.CommandResult;
+import org.spongepowered.api.command.CommandSource;
+import org.spongepowered.api.command.args.CommandContext;
+import org.spongepowered.api.command.spec.CommandSpec;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.format.TextColors;
+
+import java.util.List;
+
+/**
+ * The {@code /minigamecore config} commands, which report on the
+ * configuration files.
+ *
+ * <ul>
+ *     <li>{@code slowest [count]} shows the files the most time was spent
+ *     loading and saving.</li>
+ * </ul>
+ */
+public final class ConfigurationCommand {
+
+    private static final int DEFAULT_COUNT = 10;
+    private static final int MAX_COUNT = 100;
+
+    private ConfigurationCommand() {
+    }
+
+    public static CommandSpec create() {
+        final CommandSpec slowest = CommandSpec.builder()
+                .description(Text.of("Shows the configuration files the most time was spent loading and saving."))
+                .permission("minigamecore.command.config.slowest")
+                .arguments(optional(integer(Text.of("count"))))
+                .executor(ConfigurationCommand::slowest)
+                .build();
+
+        return CommandSpec.builder()
+                .description(Text.of("Reports on the configuration files."))
+                .child(slowest, "slowest")
+                .build();
+    }
+
+    private static CommandResult slowest(CommandSource src, CommandContext args) {
+        final int count = Math.max(1, Math.min(MAX_COUNT, args.<Integer>getOne("count").orElse(DEFAULT_COUNT)));
+        final ConfigurationStats stats = ((MinigameServiceImpl) getServiceManager().provideUnchecked(MinigameService.class))
+                .getConfigurationStats();
+        final List<ConfigurationStats.Entry> slowest = stats.getSlowest(count);
+
+        src.sendMessage(Text.of(TextColors.GREEN, format("The %d slowest configuration files:", slowest.size())));
+        slowest.forEach(entry -> src.sendMessage(Text.of(format("%s %s: %d loads, %.1f ms (max %.1f ms), %d KB read; "
+                        + "%d writes, %.1f ms (max %.1f ms), %d KB written, %d unchanged; %d failures",
+                entry.getPlugin(), entry.getFile(), entry.getLoads(), millis(entry.getLoadNanos()), millis(entry.getMaxLoadNanos()),
+                entry.getBytesRead() / 1024, entry.getWrites(), millis(entry.getWriteNanos()), millis(entry.getMaxWriteNanos()),
+                entry.getBytesWritten() / 1024, entry.getSkippedWrites(), entry.getFailures()))));
+        return CommandResult.success();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1000000.0;
+    }
+
+}
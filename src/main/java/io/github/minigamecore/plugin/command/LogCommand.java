@@ -0,0 +1,233 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.command;
+
+import static java.lang.String.format;
+import static org.spongepowered.api.Sponge.getScheduler;
+import static org.spongepowered.api.command.args.GenericArguments.choices;
+import static org.spongepowered.api.command.args.GenericArguments.flags;
+import static org.spongepowered.api.command.args.GenericArguments.integer;
+import static org.spongepowered.api.command.args.GenericArguments.optional;
+import static org.spongepowered.api.command.args.GenericArguments.remainingJoinedStrings;
+import static org.spongepowered.api.command.args.GenericArguments.string;
+
+import io.github.minigamecore.plugin.MinigameCore;
+import io.github.minigamecore.plugin.util.logger.LogSearch;
+import io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.Level;
+import org.spongepowered.api.command.CommandException;
+import org.spongepowered.api.command.CommandResult;
+import org.spongepowered.api.command.CommandSource;
+import org.spongepowered.api.command.args.CommandContext;
+import org.spongepowered.api.command.spec.CommandSpec;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.format.TextColors;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+/**
+ * The {@code /minigamecore log} commands, which read the MinigameCore log
+ * files.
+ *
+ * <ul>
+ *     <li>{@code tail [lines]} shows the last lines of the active log file.
+ *     </li>
+ *     <li>{@code search [--from time] [--to time] [--level level]
+ *     [--logger name] [--limit lines] [text]} searches all log files,
+ *     newest first.</li>
+ * </ul>
+ *
+ * <p>
+ *     Times are given as {@code yyyy-MM-dd}, {@code HH:mm[:ss]} for today, or
+ *     both joined by {@code T}. Levels are given in lower case, from
+ *     {@code trace} to {@code error}. The log files are read off the main
+ *     thread, one command at a time.
+ * </p>
+ */
+public final class LogCommand {
+
+    private static final int DEFAULT_TAIL = 20;
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LINES = 1000;
+
+    private final MinigameCore plugin;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private LogCommand(MinigameCore plugin) {
+        this.plugin = plugin;
+    }
+
+    public static CommandSpec create(MinigameCore plugin) {
+        final LogCommand command = new LogCommand(plugin);
+
+        final CommandSpec tail = CommandSpec.builder()
+                .description(Text.of("Shows the last lines of the active log file."))
+                .permission("minigamecore.command.log.tail")
+                .arguments(optional(integer(Text.of("lines"))))
+                .executor(command::tail)
+                .build();
+
+        final CommandSpec search = CommandSpec.builder()
+                .description(Text.of("Searches the log files."))
+                .permission("minigamecore.command.log.search")
+                .arguments(flags()
+                        .valueFlag(string(Text.of("from")), "-from")
+                        .valueFlag(string(Text.of("to")), "-to")
+                        .valueFlag(choices(Text.of("level"), levels()), "-level")
+                        .valueFlag(string(Text.of("logger")), "-logger")
+                        .valueFlag(integer(Text.of("limit")), "-limit")
+                        .buildWith(optional(remainingJoinedStrings(Text.of("text")))))
+                .executor(command::search)
+                .build();
+
+        return CommandSpec.builder()
+                .description(Text.of("Reads the MinigameCore log files."))
+                .child(tail, "tail")
+                .child(search, "search")
+                .build();
+    }
+
+    private CommandResult tail(CommandSource src, CommandContext args) throws CommandException {
+        final int lines = clamp(args.<Integer>getOne("lines").orElse(DEFAULT_TAIL));
+
+        read(src, "Could not read the active log file", () -> {
+            final List<String> tail = LogSearch.tail(lines);
+            send(src, format("Last %d lines of the active log file:", tail.size()), tail);
+        });
+        return CommandResult.success();
+    }
+
+    private CommandResult search(CommandSource src, CommandContext args) throws CommandException {
+        final LocalDateTime from = parseTime(args.<String>getOne("from").orElse(null), false);
+        final LocalDateTime to = parseTime(args.<String>getOne("to").orElse(null), true);
+        final Level level = args.<Level>getOne("level").orElse(null);
+        final String logger = args.<String>getOne("logger").orElse(null);
+        final String text = args.<String>getOne("text").orElse(null);
+        final int limit = clamp(args.<Integer>getOne("limit").orElse(DEFAULT_LIMIT));
+
+        read(src, "Could not search the log files", () -> {
+            final long start = System.nanoTime();
+            final LogSearch.Result result = LogSearch.search(from, to, level, logger, text, limit);
+            send(src, format("Found %d%s lines in %d log files in %d ms:", result.getLines().size(), result.isTruncated() ? " (limited)" : "",
+                    result.getSegments(), (System.nanoTime() - start) / 1000000L), result.getLines());
+        });
+        return CommandResult.success();
+    }
+
+    // Reads off the main thread, one command at a time.
+    private void read(CommandSource src, String failure, Reader reader) throws CommandException {
+        if (!running.compareAndSet(false, true)) {
+            throw new CommandException(Text.of("The log files are already being read, try again shortly."));
+        }
+
+        getScheduler().createTaskBuilder().async().name(plugin.getPluginContainer().getId() + "-A-643").execute(() -> {
+            try {
+                reader.read();
+            } catch (IOException e) {
+                plugin.getLogger().warn(failure + ".", e);
+                send(src, failure + ": " + e.getMessage(), null);
+            } finally {
+                running.set(false);
+            }
+        }).submit(plugin);
+    }
+
+    // Messages are sent from the main thread.
+    private void send(CommandSource src, String header, @Nullable List<String> lines) {
+        getScheduler().createTaskBuilder().execute(() -> {
+            src.sendMessage(Text.of((lines == null) ? TextColors.RED : TextColors.GREEN, header));
+
+            if (lines != null) {
+                src.sendMessages(lines.stream().map(LogCommand::toText).collect(Collectors.toList()));
+            }
+        }).submit(plugin);
+    }
+
+    private static Text toText(String line) {
+        if (line.contains("] [ERROR] [")) {
+            return Text.of(TextColors.RED, line);
+        } else if (line.contains("] [WARN] [")) {
+            return Text.of(TextColors.YELLOW, line);
+        }
+
+        return Text.of(line);
+    }
+
+    private static int clamp(int lines) {
+        return Math.max(1, Math.min(MAX_LINES, lines));
+    }
+
+    // The levels a record can have, OFF is only a threshold.
+    private static Map<String, Level> levels() {
+        final Map<String, Level> levels = new LinkedHashMap<>();
+
+        for (Level level : Level.values()) {
+            if (level != Level.OFF) {
+                levels.put(level.name().toLowerCase(), level);
+            }
+        }
+
+        return levels;
+    }
+
+    @Nullable
+    private static LocalDateTime parseTime(@Nullable String time, boolean end) throws CommandException {
+        if (time == null) {
+            return null;
+        }
+
+        try {
+            if (time.contains("T")) {
+                return LocalDateTime.parse(time);
+            } else if (time.contains(":")) {
+                return LocalDate.now().atTime(LocalTime.parse(time));
+            }
+
+            // A whole day, up to its last second when it is the end of the range.
+            return end ? LocalDate.parse(time).atTime(LocalTime.MAX) : LocalDate.parse(time).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            throw new CommandException(Text.of(format("%s is not a time, use yyyy-MM-dd, HH:mm[:ss] or yyyy-MM-ddTHH:mm[:ss].", time)));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Reader {
+
+        void read() throws IOException;
+
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.command;
+
+import static org.spongepowered.api.Sponge.getScheduler;
+
+import io.github.minigamecore.plugin.MinigameCore;
+import io.github.minigamecore.plugin.util.trace.Tracer;
+import org.spongepowered.api.command.CommandResult;
+import org.spongepowered.api.command.CommandSource;
+import org.spongepowered.api.command.args.CommandContext;
+import org.spongepowered.api.command.spec.CommandSpec;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.format.TextColors;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The {@code /minigamecore trace} commands, which export the timed startup
+ * and reload phases.
+ *
+ * <ul>
+ *     <li>{@code dump} writes them to
+ *     {@code logs/minigamecore/trace-<time>.json} as Chrome trace events.
+ *     </li>
+ * </ul>
+ */
+public final class TraceCommand {
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final MinigameCore plugin;
+
+    private TraceCommand(MinigameCore plugin) {
+        this.plugin = plugin;
+    }
+
+    public static CommandSpec create(MinigameCore plugin) {
+        final TraceCommand command = new TraceCommand(plugin);
+
+        final CommandSpec dump = CommandSpec.builder()
+                .description(Text.of("Writes the startup and reload timings as Chrome trace events."))
+                .permission("minigamecore.command.trace.dump")
+                .executor(command::dump)
+                .build();
+
+        return CommandSpec.builder()
+                .description(Text.of("Exports the startup and reload timings."))
+                .child(dump, "dump")
+                .build();
+    }
+
+    private CommandResult dump(CommandSource src, CommandContext args) {
+        final Path path = Paths.get("logs", plugin.getPluginContainer().getId(), "trace-" + LocalDateTime.now().format(FILE_TIME) + ".json");
+
+        getScheduler().createTaskBuilder().async().name(plugin.getPluginContainer().getId() + "-A-644").execute(() -> {
+            Text result;
+
+            try {
+                result = Text.of(TextColors.GREEN, "Wrote " + Tracer.dump(path) + " spans to " + path + ".");
+            } catch (IOException e) {
+                plugin.getLogger().warn("Could not write the trace file.", e);
+                result = Text.of(TextColors.RED, "Could not write the trace file: " + e.getMessage());
+            }
+
+            final Text message = result;
+            getScheduler().createTaskBuilder().execute(() -> src.sendMessage(message)).submit(plugin);
+        }).submit(plugin);
+        return CommandResult.success();
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.config;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.github.minigamecore.api.util.config.Configuration;
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+/**
+ * Binds a {@link Configuration} to an immutable snapshot of its values.
+ *
+ * <p>
+ *     The snapshot is built by a parser that reads every value it needs from
+ *     the node once, with its paths resolved and its values converted to
+ *     their final types. Every load or reload of the configuration publishes
+ *     a new snapshot, so a reader only does a volatile read of an object
+ *     with final fields instead of walking the node tree.
+ * </p>
+ *
+ * @param <T> The type of the snapshot
+ */
+public final class ConfigurationBinding<T> {
+
+    private final Configuration config;
+    private final Function<? super CommentedConfigurationNode, ? extends T> parser;
+    private volatile T snapshot;
+
+    private ConfigurationBinding(Configuration config, Function<? super CommentedConfigurationNode, ? extends T> parser) {
+        this.config = config;
+        this.parser = parser;
+    }
+
+    /**
+     * Binds a configuration, the first snapshot is built right away from the
+     * loaded node.
+     *
+     * @param config The configuration, already loaded
+     * @param parser Builds a snapshot from the root node, must not keep a
+     *     reference to the node
+     * @param <T> The type of the snapshot
+     * @return The binding
+     */
+    public static <T> ConfigurationBinding<T> bind(Configuration config, Function<? super CommentedConfigurationNode, ? extends T> parser) {
+        checkNotNull(config, "configuration");
+        checkNotNull(parser, "parser");
+
+        final ConfigurationBinding<T> binding = new ConfigurationBinding<>(config, parser);
+        binding.snapshot = checkNotNull(parser.apply(config.get()), "snapshot");
+        ConfigurationFiles.bind(config, binding);
+        return binding;
+    }
+
+    /**
+     * Gets the snapshot of the last load.
+     */
+    public T get() {
+        return snapshot;
+    }
+
+    /**
+     * Gets the bound configuration.
+     */
+    public Configuration getConfiguration() {
+        return config;
+    }
+
+    // Called after every load, a snapshot that fails to build keeps the previous one.
+    void refresh() throws IOException {
+        final T next;
+
+        try {
+            next = parser.apply(config.get());
+        } catch (RuntimeException e) {
+            throw new IOException("Could not read the values of a configuration, the previous values are kept.", e);
+        }
+
+        if (next == null) {
+            throw new IOException("Could not read the values of a configuration, the previous values are kept.");
+        }
+
+        snapshot = next;
+    }
+
+}
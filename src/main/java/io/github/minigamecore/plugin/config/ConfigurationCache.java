@@ -0,0 +1,380 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.config;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import ninja.leaping.configurate.ConfigurationOptions;
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+import ninja.leaping.configurate.commented.SimpleCommentedConfigurationNode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Keeps parsed configuration nodes in a compact binary form, so an unchanged
+ * file is not parsed again.
+ *
+ * <p>
+ *     Every file gets its own entry, named after the hash of its absolute
+ *     path. An entry is only used when the file still matches the
+ *     {@link FileStamp} it was written with, so an entry written within
+ *     {@link FileStamp#GRANULARITY} of a change to the file is never used.
+ *     The hash of the default asset of the file has to match as well, the
+ *     defaults are merged into the node when it is loaded.
+ * </p>
+ *
+ * <p>
+ *     The content hash of the file is stored along with the node, a cached
+ *     file is not read at all.
+ * </p>
+ *
+ * <p>
+ *     Entries are written in the following format:
+ * </p>
+ *
+ * <pre>
+ * entry  := "MGCC" version:int path:string size:long modified:long
+ *           settled:boolean file:16 bytes defaults:16 bytes
+ *           header:optional-string node
+ * node   := comment:optional-string type:byte value
+ * </pre>
+ */
+final class ConfigurationCache {
+
+    private static final int MAGIC = 0x4D474343; // MGCC
+    private static final int VERSION = 2;
+
+    private static final byte NONE = 0;
+    private static final byte MAP = 1;
+    private static final byte LIST = 2;
+    private static final byte STRING = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte INTEGER = 5;
+    private static final byte LONG = 6;
+    private static final byte DOUBLE = 7;
+    private static final byte FLOAT = 8;
+
+    private final Path directory;
+
+    ConfigurationCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Reads the cached node of a file.
+     *
+     * @param path The absolute path of the file
+     * @param attributes The current attributes of the file
+     * @param defaults The hash of the default asset of the file
+     * @param options The options of the loader of the file
+     * @return The entry, or {@code null} if the file is not cached or changed
+     */
+    @Nullable
+    Entry read(Path path, BasicFileAttributes attributes, HashCode defaults, ConfigurationOptions options) {
+        final byte[] content;
+
+        try {
+            content = Files.readAllBytes(entry(path));
+        } catch (IOException e) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(content))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !readString(in).equals(path.toString())) {
+                return null;
+            }
+
+            final FileStamp stamp = FileStamp.read(in);
+            final HashCode hash = readHash(in);
+
+            if (!stamp.matches(attributes) || !readHash(in).equals(defaults)) {
+                return null;
+            }
+
+            final String header = in.readBoolean() ? readString(in) : null;
+            final CommentedConfigurationNode node = SimpleCommentedConfigurationNode.root(options.setHeader(header));
+            readNode(in, node);
+            return new Entry(node, hash, stamp);
+        } catch (IOException | RuntimeException e) {
+            // A broken entry is written again after the file was parsed.
+            return null;
+        }
+    }
+
+    /**
+     * Caches the node of a file.
+     *
+     * @param path The absolute path of the file
+     * @param stamp The stamp of the file the node was parsed from
+     * @param hash The content hash of the file the node was parsed from
+     * @param defaults The hash of the default asset of the file
+     * @param node The parsed node
+     * @return If the node could be cached, only the values HOCON produces
+     *     are supported
+     * @throws IOException If the entry could not be written
+     */
+    boolean write(Path path, FileStamp stamp, HashCode hash, HashCode defaults, CommentedConfigurationNode node) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, path.toString());
+            stamp.write(out);
+            out.write(hash.asBytes());
+            out.write(defaults.asBytes());
+
+            final String header = node.getOptions().getHeader();
+            out.writeBoolean(header != null);
+
+            if (header != null) {
+                writeString(out, header);
+            }
+
+            if (!writeNode(out, node)) {
+                return false;
+            }
+        }
+
+        Files.createDirectories(directory);
+        ConfigurationFiles.write(entry(path), bytes.toByteArray());
+        return true;
+    }
+
+    /**
+     * Deletes every entry.
+     */
+    void clear() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.bin")) {
+            for (Path entry : stream) {
+                Files.deleteIfExists(entry);
+            }
+        } catch (NoSuchFileException ignored) {
+            // Nothing was cached.
+        }
+    }
+
+    private Path entry(Path path) {
+        return directory.resolve(Hashing.murmur3_128().hashString(path.toString(), UTF_8) + ".bin");
+    }
+
+    private static HashCode readHash(DataInputStream in) throws IOException {
+        final byte[] hash = new byte[16];
+        in.readFully(hash);
+        return HashCode.fromBytes(hash);
+    }
+
+    private static boolean writeNode(DataOutputStream out, CommentedConfigurationNode node) throws IOException {
+        final String comment = node.getComment().orElse(null);
+        out.writeBoolean(comment != null);
+
+        if (comment != null) {
+            writeString(out, comment);
+        }
+
+        if (node.hasMapChildren()) {
+            final Map<Object, ? extends CommentedConfigurationNode> children = node.getChildrenMap();
+            out.writeByte(MAP);
+            out.writeInt(children.size());
+
+            for (Map.Entry<Object, ? extends CommentedConfigurationNode> child : children.entrySet()) {
+                if (!(child.getKey() instanceof String)) {
+                    return false;
+                }
+
+                writeString(out, (String) child.getKey());
+
+                if (!writeNode(out, child.getValue())) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        if (node.hasListChildren()) {
+            final List<? extends CommentedConfigurationNode> children = node.getChildrenList();
+            out.writeByte(LIST);
+            out.writeInt(children.size());
+
+            for (CommentedConfigurationNode child : children) {
+                if (!writeNode(out, child)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        final Object value = node.getValue();
+
+        if (value == null) {
+            out.writeByte(NONE);
+        } else if (value instanceof Map) {
+            // An empty map or list has no children either.
+            out.writeByte(MAP);
+            out.writeInt(0);
+        } else if (value instanceof List) {
+            out.writeByte(LIST);
+            out.writeInt(0);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else {
+            return false;
+        }
+
+        return true;
+    }
+
+    private static void readNode(DataInputStream in, CommentedConfigurationNode node) throws IOException {
+        if (in.readBoolean()) {
+            node.setComment(readString(in));
+        }
+
+        final byte type = in.readByte();
+
+        switch (type) {
+            case NONE:
+                break;
+            case MAP: {
+                final int size = in.readInt();
+
+                if (size == 0) {
+                    node.setValue(Collections.emptyMap());
+                }
+
+                for (int i = 0; i < size; i++) {
+                    readNode(in, node.getNode(readString(in)));
+                }
+
+                break;
+            }
+            case LIST: {
+                final int size = in.readInt();
+
+                if (size == 0) {
+                    node.setValue(Collections.emptyList());
+                }
+
+                for (int i = 0; i < size; i++) {
+                    readNode(in, node.getAppendedNode());
+                }
+
+                break;
+            }
+            case STRING:
+                node.setValue(readString(in));
+                break;
+            case BOOLEAN:
+                node.setValue(in.readBoolean());
+                break;
+            case INTEGER:
+                node.setValue(in.readInt());
+                break;
+            case LONG:
+                node.setValue(in.readLong());
+                break;
+            case DOUBLE:
+                node.setValue(in.readDouble());
+                break;
+            case FLOAT:
+                node.setValue(in.readFloat());
+                break;
+            default:
+                throw new IOException("Unknown node type " + type);
+        }
+    }
+
+    // DataOutput#writeUTF is limited to 64 kilobytes.
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        final byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        final int length = in.readInt();
+
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Invalid string length " + length);
+        }
+
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * A cached node with the file it was parsed from.
+     */
+    static final class Entry {
+
+        final CommentedConfigurationNode node;
+        // The content hash of the file.
+        final HashCode hash;
+        final FileStamp stamp;
+
+        Entry(CommentedConfigurationNode node, HashCode hash, FileStamp stamp) {
+            this.node = node;
+            this.hash = hash;
+            this.stamp = stamp;
+        }
+
+    }
+
+}
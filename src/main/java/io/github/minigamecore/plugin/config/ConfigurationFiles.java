@@ -0,0 +1,501 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.config;
+
+import static java.lang.String.format;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import com.google.common.collect.MapMaker;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.github.minigamecore.api.util.config.Configuration;
+import ninja.leaping.configurate.ConfigurationOptions;
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+import ninja.leaping.configurate.loader.ConfigurationLoader;
+import org.spongepowered.api.asset.Asset;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.annotation.Nullable;
+
+/**
+ * Loads {@link Configuration}s and saves them only when their content
+ * changed.
+ *
+ * <p>
+ *     The values and comments of the node are hashed after every load and
+ *     save. The file is left alone when neither the node nor the file changed
+ *     since, otherwise the configuration saves it with its own loader. The
+ *     previous file is kept as a backup until the save succeeded, a load
+ *     after a crash in between restores it.
+ * </p>
+ *
+ * <p>
+ *     The hash of every file loaded, written or found unchanged is
+ *     remembered with its {@link FileStamp}, so the file is only read again
+ *     when the stamp no longer matches. The {@link ConfigurationCache} uses
+ *     the same stamps.
+ * </p>
+ *
+ * <p>
+ *     {@link Configuration} has no accessors for its file, defaults, loader
+ *     and node, so they are read from its fields, found by type. Should
+ *     MinigameCoreAPI change the fields, every operation fails with an
+ *     {@link IllegalStateException} instead of silently falling back.
+ * </p>
+ */
+final class ConfigurationFiles {
+
+    @Nullable private static final Field PATH = field(Path.class);
+    @Nullable private static final Field NODE = field(CommentedConfigurationNode.class);
+    @Nullable private static final Field ASSET = field(Asset.class);
+    @Nullable private static final Field LOADER = field(ConfigurationLoader.class);
+    private static final Map<Configuration, Stamp> stamps = new MapMaker().weakKeys().makeMap();
+    // The node and file hashes of the last load or save, when the node and the file matched.
+    private static final Map<Configuration, Synced> synced = new MapMaker().weakKeys().makeMap();
+    // The hashes of the default assets, they do not change while the server runs.
+    private static final Map<Configuration, HashCode> defaults = new MapMaker().weakKeys().makeMap();
+    private static final Map<Configuration, List<ConfigurationBinding<?>>> bindings = new MapMaker().weakKeys().makeMap();
+    @Nullable private static volatile ConfigurationCache activeCache;
+
+    private ConfigurationFiles() {
+    }
+
+    /**
+     * Gets the file of a configuration.
+     *
+     * @return The path
+     * @throws IllegalStateException If the file is not accessible
+     */
+    static Path getPath(Configuration config) {
+        return (Path) get(PATH, Path.class, config);
+    }
+
+    /**
+     * Gets the size of the file of a configuration when it was last loaded or
+     * saved.
+     *
+     * @return The size in bytes, 0 if it is not known
+     */
+    static long getSize(Configuration config) {
+        final Stamp stamp = stamps.get(config);
+        return (stamp == null) ? 0L : stamp.file.size;
+    }
+
+    /**
+     * Caches parsed nodes in a directory from now on.
+     *
+     * @param directory The directory, {@code null} stops caching and deletes
+     *     the cached nodes
+     * @throws IOException If the cached nodes could not be deleted
+     * @throws IllegalStateException If cached nodes could not be given to
+     *     configurations
+     */
+    static void setCache(@Nullable Path directory) throws IOException {
+        if (directory != null) {
+            require(NODE, CommentedConfigurationNode.class);
+        }
+
+        final ConfigurationCache previous = activeCache;
+        activeCache = (directory == null) ? null : new ConfigurationCache(directory);
+
+        if (directory == null && previous != null) {
+            previous.clear();
+        }
+    }
+
+    /**
+     * Loads a configuration, remembers the content of its file and refreshes
+     * its bindings.
+     *
+     * <p>
+     *     A file that is cached and did not change, along with its defaults,
+     *     is not parsed, the cached node is used instead. It gets the options
+     *     of the loader of the configuration.
+     * </p>
+     *
+     * @throws IOException If the file could not be loaded or a binding could
+     *     not be refreshed
+     */
+    static void load(Configuration config) throws IOException {
+        final Path path = getPath(config);
+        final ConfigurationCache cache = activeCache;
+
+        //noinspection SynchronizationOnLocalVariableOrMethodParameter
+        synchronized (config) {
+            restore(path);
+            stamps.remove(config);
+            final BasicFileAttributes attributes = attributes(path);
+            final HashCode asset = (cache == null || attributes == null) ? null : asset(config);
+            final ConfigurationCache.Entry entry = (asset == null) ? null
+                    : cache.read(path.toAbsolutePath(), attributes, asset, options(config));
+
+            if (entry != null) {
+                set(config, entry.node);
+                stamps.put(config, new Stamp(entry.hash, entry.stamp));
+                sync(config, entry.hash);
+            } else {
+                // Loading may create the file.
+                config.load();
+                sync(config, current(config, path));
+                cached(cache, config, path);
+            }
+
+            IOException failure = null;
+
+            for (ConfigurationBinding<?> binding : bindings.getOrDefault(config, Collections.emptyList())) {
+                try {
+                    binding.refresh();
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private static void cached(@Nullable ConfigurationCache cache, Configuration config, Path path) {
+        final Stamp stamp = stamps.get(config);
+        final HashCode asset = (cache == null || stamp == null || config.get() == null) ? null : asset(config);
+
+        if (asset == null) {
+            return;
+        }
+
+        try {
+            cache.write(path.toAbsolutePath(), stamp.file, stamp.hash, asset, config.get());
+        } catch (IOException e) {
+            // Only startup gets slower, the next load tries again.
+        }
+    }
+
+    // The hash of the defaults of the file, null if they are not accessible.
+    @Nullable
+    private static HashCode asset(Configuration config) {
+        HashCode asset = defaults.get(config);
+
+        if (asset == null) {
+            final Asset source = (Asset) get(ASSET, Asset.class, config);
+
+            try {
+                asset = Hashing.murmur3_128().hashBytes(source.readBytes());
+            } catch (IOException | RuntimeException e) {
+                asset = null;
+            }
+
+            if (asset == null) {
+                return null;
+            }
+
+            defaults.put(config, asset);
+        }
+
+        return asset;
+    }
+
+    // The options Configuration#load would give the node.
+    private static ConfigurationOptions options(Configuration config) {
+        return ((ConfigurationLoader<?>) get(LOADER, ConfigurationLoader.class, config)).getDefaultOptions();
+    }
+
+    private static void set(Configuration config, CommentedConfigurationNode node) {
+        try {
+            require(NODE, CommentedConfigurationNode.class).set(config, node);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Remembers that the node matches the file, which has the given hash.
+    private static void sync(Configuration config, @Nullable HashCode file) {
+        final CommentedConfigurationNode node = config.get();
+
+        if (node == null || file == null) {
+            synced.remove(config);
+        } else {
+            synced.put(config, new Synced(hash(node), file));
+        }
+    }
+
+    static void bind(Configuration config, ConfigurationBinding<?> binding) {
+        bindings.computeIfAbsent(config, key -> new CopyOnWriteArrayList<>()).add(binding);
+    }
+
+    /**
+     * Loads a configuration again if its file changed since it was last
+     * loaded or saved.
+     *
+     * @return If the configuration was loaded
+     * @throws IOException If the file could not be loaded
+     */
+    static boolean reload(Configuration config) throws IOException {
+        final Path path = getPath(config);
+
+        //noinspection SynchronizationOnLocalVariableOrMethodParameter
+        synchronized (config) {
+            final Stamp stamp = stamps.get(config);
+
+            // A touched file with the same content is not loaded again either.
+            if (stamp != null && stamp.hash.equals(current(config, path))) {
+                return false;
+            }
+
+            load(config);
+            return true;
+        }
+    }
+
+    /**
+     * Saves a configuration unless neither its node nor its file changed
+     * since it was last loaded or saved.
+     *
+     * @return If the file was written
+     * @throws IOException If the file could not be written
+     */
+    static boolean save(Configuration config) throws IOException {
+        final Path path = getPath(config);
+
+        //noinspection SynchronizationOnLocalVariableOrMethodParameter
+        synchronized (config) {
+            final CommentedConfigurationNode node = config.get();
+            final Synced last = synced.get(config);
+
+            if (node != null && last != null && last.node.equals(hash(node)) && last.file.equals(current(config, path))) {
+                return false;
+            }
+
+            final Path backup = backup(path);
+            final boolean existed = Files.exists(path);
+
+            // The previous file is kept until the loader of the configuration wrote the new one.
+            if (existed) {
+                write(backup, Files.readAllBytes(path));
+            }
+
+            config.save();
+            Files.deleteIfExists(backup);
+            stamps.remove(config);
+            sync(config, current(config, path));
+            return true;
+        }
+    }
+
+    // A backup left behind by a save that did not finish replaces the file it was taken of.
+    private static void restore(Path path) throws IOException {
+        final Path backup = backup(path);
+
+        if (Files.exists(backup)) {
+            try {
+                Files.move(backup, path, ATOMIC_MOVE, REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(backup, path, REPLACE_EXISTING);
+            }
+        }
+    }
+
+    private static Path backup(Path path) {
+        return path.resolveSibling(path.getFileName() + ".bak");
+    }
+
+    // The hash of the file, only read when it changed since the last save.
+    @Nullable
+    private static HashCode current(Configuration config, Path path) throws IOException {
+        final BasicFileAttributes attributes = attributes(path);
+
+        if (attributes == null) {
+            return null;
+        }
+
+        final Stamp stamp = stamps.get(config);
+
+        if (stamp != null && stamp.file.matches(attributes)) {
+            return stamp.hash;
+        }
+
+        final HashCode hash = Hashing.murmur3_128().hashBytes(Files.readAllBytes(path));
+        stamps.put(config, new Stamp(hash, FileStamp.of(attributes, System.currentTimeMillis())));
+        return hash;
+    }
+
+    @Nullable
+    private static BasicFileAttributes attributes(Path path) throws IOException {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    // Hashes what the loader saves, the values and comments, the order of map children does not matter.
+    private static HashCode hash(CommentedConfigurationNode node) {
+        final Hasher hasher = Hashing.murmur3_128().newHasher();
+        hasher.putUnencodedChars(node.getComment().orElse("")).putByte((byte) 0);
+
+        if (node.hasMapChildren()) {
+            final List<HashCode> children = new ArrayList<>();
+
+            for (Map.Entry<Object, ? extends CommentedConfigurationNode> child : node.getChildrenMap().entrySet()) {
+                children.add(Hashing.murmur3_128().newHasher()
+                        .putUnencodedChars(String.valueOf(child.getKey())).putByte((byte) 0)
+                        .putBytes(hash(child.getValue()).asBytes())
+                        .hash());
+            }
+
+            hasher.putByte((byte) 1).putBytes(Hashing.combineUnordered(children).asBytes());
+        } else if (node.hasListChildren()) {
+            hasher.putByte((byte) 2).putInt(node.getChildrenList().size());
+
+            for (CommentedConfigurationNode child : node.getChildrenList()) {
+                hasher.putBytes(hash(child).asBytes());
+            }
+        } else {
+            final Object value = node.getValue();
+            hasher.putByte((byte) 3).putUnencodedChars((value == null) ? "" : value.getClass().getName() + ':' + value);
+        }
+
+        return hasher.hash();
+    }
+
+    static void write(Path path, byte[] content) throws IOException {
+        final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        try (FileChannel channel = FileChannel.open(temporary, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            final ByteBuffer buffer = ByteBuffer.wrap(content);
+
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temporary, path, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, path, REPLACE_EXISTING);
+        }
+    }
+
+    // Configuration is part of the API, its fields are found by type. Null unless exactly one field has the type.
+    @Nullable
+    private static Field field(Class<?> type) {
+        Field found = null;
+
+        for (Field field : Configuration.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && type.isAssignableFrom(field.getType())) {
+                if (found != null) {
+                    return null;
+                }
+
+                found = field;
+            }
+        }
+
+        if (found != null) {
+            found.setAccessible(true);
+        }
+
+        return found;
+    }
+
+    private static Field require(@Nullable Field field, Class<?> type) {
+        if (field == null) {
+            throw new IllegalStateException(format("Configuration has no single field of type %s, this version of MinigameCoreAPI is not"
+                    + " supported", type.getName()));
+        }
+
+        return field;
+    }
+
+    private static Object get(@Nullable Field field, Class<?> type, Configuration config) {
+        try {
+            final Object value = require(field, type).get(config);
+
+            if (value == null) {
+                throw new IllegalStateException(format("The %s of a configuration is not set", type.getSimpleName()));
+            }
+
+            return value;
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Synced {
+
+        final HashCode node;
+        final HashCode file;
+
+        Synced(HashCode node, HashCode file) {
+            this.node = node;
+            this.file = file;
+        }
+
+    }
+
+    private static final class Stamp {
+
+        final HashCode hash;
+        final FileStamp file;
+
+        Stamp(HashCode hash, FileStamp file) {
+            this.hash = hash;
+            this.file = file;
+        }
+
+    }
+
+}
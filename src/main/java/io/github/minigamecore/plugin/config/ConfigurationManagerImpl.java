@@ -25,97 +25,399 @@
 
 package io.github.minigamecore.plugin.config;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.String.format;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.spongepowered.api.Sponge.getPluginManager;
+import static org.spongepowered.api.Sponge.getScheduler;
 
+import com.google.common.collect.MapMaker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import io.github.minigamecore.api.util.config.Configuration;
 import io.github.minigamecore.api.util.config.ConfigurationManager;
 import io.github.minigamecore.plugin.util.logger.MinigameCoreLogger;
 import org.slf4j.Logger;
+import org.spongepowered.api.plugin.PluginContainer;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
 
 @Singleton
 public final class ConfigurationManagerImpl implements ConfigurationManager {
 
+    private static final int THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
     private final Logger logger = new MinigameCoreLogger("ConfigurationManager");
-    private final Map<Object, List<Configuration>> configMap = new HashMap<>();
+    // Keyed by plugin id.
+    private final Map<String, Registration> configMap = new ConcurrentHashMap<>();
+    // Compared by identity, resolved through the plugin manager once per plugin.
+    private final Map<Object, String> ids = new MapMaker().weakKeys().makeMap();
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS, new ThreadFactoryBuilder()
+            .setNameFormat("minigamecore-config-%d")
+            .setDaemon(true)
+            .build());
+    private final ConfigurationWatcher watcher = new ConfigurationWatcher(logger, this::changed);
+    private final Map<Path, Watched> watched = new ConcurrentHashMap<>();
+    private final ConfigurationStats stats;
+
+    @Inject
+    private ConfigurationManagerImpl(ConfigurationStats stats) {
+        this.stats = stats;
+    }
 
     @Override
     public void register(final Object plugin, final Configuration config) {
         checkNotNull(plugin, "plugin");
         checkNotNull(config, "configuration");
 
-        getPluginManager().fromInstance(plugin).ifPresent(pluginContainer ->  {
-            if (configMap.containsKey(plugin)) {
-                configMap.get(plugin).add(config);
-            } else {
-                List<Configuration> c = new ArrayList<>();
-                c.add(config);
-                configMap.put(plugin, c);
-            }
-        });
+        final Path path = ConfigurationFiles.getPath(config);
+        final Registration registration = registration(plugin);
+
+        if (registration == null || !registration.configs.addIfAbsent(config)) {
+            return;
+        }
+
+        watched.put(watcher.watch(path), new Watched(registration, config));
     }
 
-    @Override
-    public void load(final Object plugin) {
+    /**
+     * Removes a configuration of a plugin, it is no longer loaded, saved or
+     * watched by this manager.
+     *
+     * @param plugin The plugin instance
+     * @param config The configuration
+     * @return If the configuration was registered
+     */
+    public boolean unregister(final Object plugin, final Configuration config) {
         checkNotNull(plugin, "plugin");
+        checkNotNull(config, "configuration");
+
+        final String id = id(plugin);
+        final Registration registration = (id == null) ? null : configMap.get(id);
 
-        if (configMap.containsKey(plugin)) {
-            configMap.get(plugin).forEach((config -> {
-                try {
-                    config.load();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }));
+        if (registration == null || !registration.configs.remove(config)) {
+            return false;
         }
+
+        watched.remove(watcher.unwatch(ConfigurationFiles.getPath(config)));
+        return true;
     }
 
-    @Override
-    public void save(final Object plugin) {
+    /**
+     * Removes every configuration and listener of a plugin.
+     *
+     * @param plugin The plugin instance
+     */
+    public void unregister(final Object plugin) {
         checkNotNull(plugin, "plugin");
 
-        if (configMap.containsKey(plugin)) {
-            configMap.get(plugin).forEach(config -> {
-                try {
-                    config.save();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            });
+        final String id = id(plugin);
+        final Registration registration = (id == null) ? null : configMap.get(id);
+
+        if (registration != null) {
+            registration.configs.forEach(config -> unregister(plugin, config));
+            registration.listeners.clear();
         }
     }
 
+    /**
+     * Adds a listener called when a configuration of a plugin was reloaded
+     * because its file changed.
+     *
+     * <p>
+     *     Only the changed configuration is loaded again. Listeners are
+     *     called on the main thread.
+     * </p>
+     *
+     * @param plugin The plugin instance
+     * @param listener Receives the reloaded configuration
+     */
+    public void onChange(final Object plugin, final Consumer<Configuration> listener) {
+        checkNotNull(plugin, "plugin");
+        checkNotNull(listener, "listener");
+
+        final Registration registration = registration(plugin);
+        checkArgument(registration != null, "%s is not a plugin", plugin);
+        registration.listeners.add(listener);
+    }
+
+    /**
+     * Stops reloading configurations when their files change.
+     */
+    public void stopWatching() {
+        watcher.close();
+    }
+
+    @Override
+    public void load(final Object plugin) {
+        await(loadAsync(plugin));
+    }
+
+    @Override
+    public void save(final Object plugin) {
+        await(saveAsync(plugin));
+    }
+
+    /**
+     * Loads the configurations of a plugin in the background.
+     *
+     * <p>
+     *     The configurations are loaded in parallel. Operations on the same
+     *     plugin run in the order they were requested, a load requested after
+     *     a save sees the saved files.
+     * </p>
+     *
+     * @param plugin The plugin instance
+     * @return A future completed once every configuration was loaded,
+     *     completed exceptionally with an {@link IOException} holding every
+     *     failure otherwise
+     */
+    public CompletableFuture<Void> loadAsync(final Object plugin) {
+        return submit(plugin, "load", ConfigurationManagerImpl::load);
+    }
+
+    /**
+     * Saves the configurations of a plugin in the background.
+     *
+     * @param plugin The plugin instance
+     * @return A future completed once every configuration was saved
+     * @see #loadAsync(Object)
+     */
+    public CompletableFuture<Void> saveAsync(final Object plugin) {
+        return submit(plugin, "save", ConfigurationFiles::save);
+    }
+
+    /**
+     * Loads all configurations in the background.
+     *
+     * @return A future completed once every plugin was loaded
+     */
+    public CompletableFuture<Void> loadAllAsync() {
+        return CompletableFuture.allOf(configMap.values().stream()
+                .map(registration -> submit(registration, "load", ConfigurationManagerImpl::load))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Saves all configurations in the background.
+     *
+     * @return A future completed once every plugin was saved
+     */
+    public CompletableFuture<Void> saveAllAsync() {
+        return CompletableFuture.allOf(configMap.values().stream()
+                .map(registration -> submit(registration, "save", ConfigurationFiles::save))
+                .toArray(CompletableFuture[]::new));
+    }
+
     /**
      * Loads all configurations.
      */
     public void loadAllConfigurations() {
-        configMap.forEach((plugin, configs) -> configs.forEach(config -> {
-            try {
-                config.load();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }));
+        await(loadAllAsync());
     }
 
     /**
      * Saves all configurations.
      */
     public void saveAllConfigurations() {
-        configMap.forEach((plugin, configs) -> configs.forEach(config -> {
+        await(saveAllAsync());
+    }
+
+    // Called on the watcher thread.
+    private void changed(final Path path) {
+        final Watched entry = watched.get(path);
+
+        if (entry == null) {
+            return;
+        }
+
+        final AtomicBoolean reloaded = new AtomicBoolean();
+        submit(entry.registration, "reload", Collections.singletonList(entry.config), config -> {
+            reloaded.set(ConfigurationFiles.reload(config));
+            return reloaded.get();
+        })
+                .thenRun(() -> {
+                    if (reloaded.get()) {
+                        logger.info("Reloaded " + path.getFileName());
+                        getScheduler().createTaskBuilder().execute(() -> announce(entry)).submit(entry.registration.plugin);
+                    }
+                });
+    }
+
+    private void announce(final Watched entry) {
+        entry.registration.listeners.forEach(listener -> {
             try {
-                config.save();
-            } catch (IOException e) {
-                e.printStackTrace();
+                listener.accept(entry.config);
+            } catch (RuntimeException e) {
+                logger.error("A configuration listener failed.", e);
+            }
+        });
+    }
+
+    @Nullable
+    private String id(final Object plugin) {
+        String id = ids.get(plugin);
+
+        if (id == null) {
+            id = getPluginManager().fromInstance(plugin).map(PluginContainer::getId).orElse(null);
+
+            if (id != null) {
+                ids.put(plugin, id);
+            }
+        }
+
+        return id;
+    }
+
+    @Nullable
+    private Registration registration(final Object plugin) {
+        final String id = id(plugin);
+        return (id == null) ? null : configMap.computeIfAbsent(id, key -> new Registration(key, plugin));
+    }
+
+    private CompletableFuture<Void> submit(final Object plugin, final String action, final Operation operation) {
+        checkNotNull(plugin, "plugin");
+
+        final String id = id(plugin);
+        final Registration registration = (id == null) ? null : configMap.get(id);
+        return (registration == null) ? completedFuture(null) : submit(registration, action, operation);
+    }
+
+    private CompletableFuture<Void> submit(final Registration registration, final String action, final Operation operation) {
+        return submit(registration, action, new ArrayList<>(registration.configs), operation);
+    }
+
+    private CompletableFuture<Void> submit(final Registration registration, final String action, final List<Configuration> configs,
+            final Operation operation) {
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        final CompletableFuture<Void> previous;
+
+        synchronized (registration) {
+            previous = registration.pending;
+            registration.pending = result;
+        }
+
+        // A failed operation does not hold up the next one.
+        previous.handle((ignored, e) -> null)
+                .thenCompose(ignored -> run(registration.id, action, configs, operation))
+                .whenComplete((ignored, e) -> {
+                    if (e == null) {
+                        result.complete(null);
+                    } else {
+                        result.completeExceptionally((e instanceof CompletionException) ? e.getCause() : e);
+                    }
+                });
+
+        return result;
+    }
+
+    private CompletableFuture<Void> run(final String id, final String action, final List<Configuration> configs, final Operation operation) {
+        final List<Exception> failures = Collections.synchronizedList(new ArrayList<>());
+        final CompletableFuture<?>[] futures = configs.stream()
+                .map(config -> CompletableFuture.runAsync(() -> {
+                    final long start = System.nanoTime();
+                    String name = config.toString();
+                    boolean performed = false;
+                    boolean failed = false;
+
+                    try {
+                        name = ConfigurationFiles.getPath(config).toString();
+                        performed = operation.apply(config);
+                    } catch (IOException | RuntimeException e) {
+                        // Collected, so the other configurations are still logged and recorded.
+                        failures.add(e);
+                        failed = true;
+                    }
+
+                    stats.record(id, name, "save".equals(action), performed,
+                            System.nanoTime() - start, failed ? 0L : ConfigurationFiles.getSize(config), failed);
+                }, executor))
+                .toArray(CompletableFuture[]::new);
+
+        return CompletableFuture.allOf(futures).thenRun(() -> {
+            if (failures.isEmpty()) {
+                return;
             }
-        }));
+
+            final IOException e = new IOException(format("Could not %s %d of the %d configurations of %s",
+                    action, failures.size(), configs.size(), id));
+            failures.forEach(e::addSuppressed);
+            logger.error(e.getMessage(), e);
+            throw new CompletionException(e);
+        });
+    }
+
+    private static boolean load(final Configuration config) throws IOException {
+        ConfigurationFiles.load(config);
+        return true;
+    }
+
+    // Failed loads and saves were logged by run already, anything else is logged here.
+    private void await(final CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            if (!(e.getCause() instanceof IOException)) {
+                logger.error("A configuration operation failed.", e.getCause());
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+
+        /**
+         * Loads or saves a configuration.
+         *
+         * @return If the file was read or written
+         */
+        boolean apply(Configuration config) throws IOException;
+
+    }
+
+    private static final class Registration {
+
+        final String id;
+        final Object plugin;
+        final CopyOnWriteArrayList<Configuration> configs = new CopyOnWriteArrayList<>();
+        final List<Consumer<Configuration>> listeners = new CopyOnWriteArrayList<>();
+        // The last operation queued, the next one waits for it.
+        CompletableFuture<Void> pending = completedFuture(null);
+
+        Registration(String id, Object plugin) {
+            this.id = id;
+            this.plugin = plugin;
+        }
+
+    }
+
+    private static final class Watched {
+
+        final Registration registration;
+        final Configuration config;
+
+        Watched(Registration registration, Configuration config) {
+            this.registration = registration;
+            this.config = config;
+        }
+
     }
 
 }
@@ -36,6 +36,7 @@ public final class ConfigurationModule extends AbstractModule {
     @Override
     protected void configure() {
         get("global").ifPresent(bind(Configuration.class).annotatedWith(GlobalConfig.class)::toInstance);
+        bind(ConfigurationStats.class).toInstance(Configurations.getStats());
     }
 
 }
@@ -0,0 +1,296 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.config;
+
+import static java.util.stream.Collectors.toList;
+
+import com.google.common.base.Objects;
+import com.google.inject.Singleton;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
+/**
+ * Counts how long the {@link ConfigurationManagerImpl} spends loading and
+ * saving every configuration file. The files of {@link Configurations} are
+ * loaded before it exists and recorded there.
+ *
+ * <p>
+ *     Recording costs a map lookup and a few uncontended adds per file
+ *     operation, which is small next to the file I/O itself, so it is always
+ *     on. The counters start when the server starts.
+ * </p>
+ */
+@Singleton
+public final class ConfigurationStats {
+
+    private final Map<String, Counters> files = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the counters of every configuration file.
+     */
+    public List<Entry> getFiles() {
+        return files.values().stream().map(Counters::snapshot).collect(toList());
+    }
+
+    /**
+     * Gets the counters of every plugin, summed over its files.
+     */
+    public List<Entry> getPlugins() {
+        final Map<String, Entry> plugins = new HashMap<>();
+        files.values().forEach(counters -> plugins.merge(counters.plugin, counters.snapshot().asPlugin(), Entry::add));
+        return new ArrayList<>(plugins.values());
+    }
+
+    /**
+     * Gets the files the most time was spent on, loading and saving.
+     *
+     * @param count The maximum number of files
+     */
+    public List<Entry> getSlowest(int count) {
+        return sort(getFiles(), count);
+    }
+
+    /**
+     * Gets the plugins the most time was spent on.
+     *
+     * @param count The maximum number of plugins
+     */
+    public List<Entry> getSlowestPlugins(int count) {
+        return sort(getPlugins(), count);
+    }
+
+    /**
+     * Records a file operation.
+     *
+     * @param plugin The id of the plugin
+     * @param file The path of the file
+     * @param save If the operation was a save
+     * @param performed If the file was actually read or written
+     * @param nanos The time the operation took, only successful operations
+     *     are timed
+     * @param bytes The size of the file, 0 if it failed
+     * @param failed If the operation failed, it is only counted
+     */
+    void record(String plugin, String file, boolean save, boolean performed, long nanos, long bytes, boolean failed) {
+        final Counters counters = files.computeIfAbsent(file, key -> new Counters(plugin, key));
+
+        if (failed) {
+            // A failure can take as long as a timeout or as little as a missing file, it would skew the times.
+            counters.failures.increment();
+            return;
+        } else if (!performed) {
+            // A save of an unchanged file, or a reload of a file found unchanged.
+            if (save) {
+                counters.skipped.increment();
+            }
+
+            return;
+        }
+
+        final Timer timer = save ? counters.writes : counters.reads;
+        timer.count.increment();
+        timer.nanos.add(nanos);
+        timer.max.accumulateAndGet(nanos, Math::max);
+        timer.bytes.add(bytes);
+    }
+
+    private static List<Entry> sort(Collection<Entry> entries, int count) {
+        return entries.stream()
+                .sorted(Comparator.comparingLong(Entry::getTotalNanos).reversed())
+                .limit(Math.max(0, count))
+                .collect(toList());
+    }
+
+    private static final class Counters {
+
+        final String plugin;
+        final String file;
+        final Timer reads = new Timer();
+        final Timer writes = new Timer();
+        final LongAdder skipped = new LongAdder();
+        final LongAdder failures = new LongAdder();
+
+        Counters(String plugin, String file) {
+            this.plugin = plugin;
+            this.file = file;
+        }
+
+        Entry snapshot() {
+            return new Entry(plugin, file, reads.count.sum(), reads.nanos.sum(), reads.max.get(), reads.bytes.sum(),
+                    writes.count.sum(), writes.nanos.sum(), writes.max.get(), writes.bytes.sum(), skipped.sum(), failures.sum());
+        }
+
+    }
+
+    private static final class Timer {
+
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final AtomicLong max = new AtomicLong();
+        final LongAdder bytes = new LongAdder();
+
+    }
+
+    /**
+     * The counters of a configuration file or of all files of a plugin, at
+     * the time they were read.
+     */
+    public static final class Entry {
+
+        private final String plugin;
+        @Nullable private final String file;
+        private final long loads;
+        private final long loadNanos;
+        private final long maxLoadNanos;
+        private final long bytesRead;
+        private final long writes;
+        private final long writeNanos;
+        private final long maxWriteNanos;
+        private final long bytesWritten;
+        private final long skippedWrites;
+        private final long failures;
+
+        Entry(String plugin, @Nullable String file, long loads, long loadNanos, long maxLoadNanos, long bytesRead, long writes,
+                long writeNanos, long maxWriteNanos, long bytesWritten, long skippedWrites, long failures) {
+            this.plugin = plugin;
+            this.file = file;
+            this.loads = loads;
+            this.loadNanos = loadNanos;
+            this.maxLoadNanos = maxLoadNanos;
+            this.bytesRead = bytesRead;
+            this.writes = writes;
+            this.writeNanos = writeNanos;
+            this.maxWriteNanos = maxWriteNanos;
+            this.bytesWritten = bytesWritten;
+            this.skippedWrites = skippedWrites;
+            this.failures = failures;
+        }
+
+        /**
+         * Gets the id of the plugin.
+         */
+        public String getPlugin() {
+            return plugin;
+        }
+
+        /**
+         * Gets the path of the file, or {@code null} for the sum of the files
+         * of a plugin.
+         */
+        @Nullable
+        public String getFile() {
+            return file;
+        }
+
+        public long getLoads() {
+            return loads;
+        }
+
+        public long getLoadNanos() {
+            return loadNanos;
+        }
+
+        public long getMaxLoadNanos() {
+            return maxLoadNanos;
+        }
+
+        public long getBytesRead() {
+            return bytesRead;
+        }
+
+        public long getWrites() {
+            return writes;
+        }
+
+        public long getWriteNanos() {
+            return writeNanos;
+        }
+
+        public long getMaxWriteNanos() {
+            return maxWriteNanos;
+        }
+
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        /**
+         * Gets the number of saves skipped because the file did not change.
+         */
+        public long getSkippedWrites() {
+            return skippedWrites;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * Gets the time spent loading and writing.
+         */
+        public long getTotalNanos() {
+            return loadNanos + writeNanos;
+        }
+
+        Entry asPlugin() {
+            return new Entry(plugin, null, loads, loadNanos, maxLoadNanos, bytesRead, writes, writeNanos, maxWriteNanos, bytesWritten,
+                    skippedWrites, failures);
+        }
+
+        Entry add(Entry other) {
+            return new Entry(plugin, null, loads + other.loads, loadNanos + other.loadNanos, Math.max(maxLoadNanos, other.maxLoadNanos),
+                    bytesRead + other.bytesRead, writes + other.writes, writeNanos + other.writeNanos,
+                    Math.max(maxWriteNanos, other.maxWriteNanos), bytesWritten + other.bytesWritten, skippedWrites + other.skippedWrites,
+                    failures + other.failures);
+        }
+
+        @Override
+        public String toString() {
+            return Objects.toStringHelper(this)
+                    .add("plugin", plugin)
+                    .add("file", file)
+                    .add("loads", loads)
+                    .add("loadNanos", loadNanos)
+                    .add("writes", writes)
+                    .add("writeNanos", writeNanos)
+                    .add("skippedWrites", skippedWrites)
+                    .add("failures", failures)
+                    .toString();
+        }
+
+    }
+
+}
@@ -0,0 +1,215 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.config;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+/**
+ * Watches the directories of configuration files on a single thread.
+ *
+ * <p>
+ *     Editors and atomic saves produce several events for one change, so a
+ *     file is only reported once no event arrived for it for
+ *     {@link #DEBOUNCE} milliseconds. Only files passed to
+ *     {@link #watch(Path)} are reported.
+ * </p>
+ */
+final class ConfigurationWatcher {
+
+    static final long DEBOUNCE = 250L;
+
+    private final Logger logger;
+    private final Consumer<Path> changed;
+    private final Set<Path> files = ConcurrentHashMap.newKeySet();
+    private final Set<Path> directories = new HashSet<>();
+    @Nullable private WatchService service;
+
+    /**
+     * Creates a new watcher, the thread is started by the first
+     * {@link #watch(Path)}.
+     *
+     * @param logger The logger
+     * @param changed Receives the absolute path of a changed file, on the
+     *     watcher thread
+     */
+    ConfigurationWatcher(Logger logger, Consumer<Path> changed) {
+        this.logger = logger;
+        this.changed = changed;
+    }
+
+    /**
+     * Starts watching a file.
+     *
+     * @return The absolute path the file is reported as
+     */
+    synchronized Path watch(Path file) {
+        final Path path = file.toAbsolutePath().normalize();
+        final Path directory = path.getParent();
+        files.add(path);
+
+        if (directory == null || directories.contains(directory)) {
+            return path;
+        }
+
+        try {
+            if (service == null) {
+                service = directory.getFileSystem().newWatchService();
+                final WatchService watchService = service;
+                final Thread thread = new Thread(() -> run(watchService), "minigamecore-config-watcher");
+                thread.setDaemon(true);
+                thread.start();
+            }
+
+            directory.register(service, ENTRY_CREATE, ENTRY_MODIFY);
+            directories.add(directory);
+        } catch (IOException e) {
+            logger.warn("Could not watch " + directory + ", changes to " + path.getFileName() + " need a reload.", e);
+        }
+
+        return path;
+    }
+
+    /**
+     * Stops reporting a file, its directory stays watched.
+     *
+     * @return The absolute path the file was reported as
+     */
+    Path unwatch(Path file) {
+        final Path path = file.toAbsolutePath().normalize();
+        files.remove(path);
+        return path;
+    }
+
+    /**
+     * Stops watching, pending changes are not reported.
+     */
+    synchronized void close() {
+        if (service == null) {
+            return;
+        }
+
+        try {
+            service.close();
+        } catch (IOException e) {
+            logger.warn("Could not close the configuration watcher.", e);
+        }
+
+        service = null;
+        directories.clear();
+    }
+
+    private void run(WatchService service) {
+        final Map<Path, Long> due = new HashMap<>();
+
+        while (true) {
+            final WatchKey key;
+
+            try {
+                key = due.isEmpty() ? service.take() : service.poll(timeout(due), NANOSECONDS);
+            } catch (ClosedWatchServiceException | InterruptedException e) {
+                return;
+            }
+
+            if (key != null) {
+                collect(key, due);
+            }
+
+            final long now = System.nanoTime();
+
+            for (Iterator<Map.Entry<Path, Long>> iterator = due.entrySet().iterator(); iterator.hasNext(); ) {
+                final Map.Entry<Path, Long> entry = iterator.next();
+
+                if (now - entry.getValue() >= 0) {
+                    iterator.remove();
+                    report(entry.getKey());
+                }
+            }
+        }
+    }
+
+    private void collect(WatchKey key, Map<Path, Long> due) {
+        final Path directory = (Path) key.watchable();
+        final long deadline = System.nanoTime() + MILLISECONDS.toNanos(DEBOUNCE);
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                // Events were lost, every file of the directory may have changed.
+                files.stream().filter(file -> directory.equals(file.getParent())).forEach(file -> due.put(file, deadline));
+                continue;
+            }
+
+            final Path file = directory.resolve((Path) event.context());
+
+            if (files.contains(file)) {
+                due.put(file, deadline);
+            }
+        }
+
+        key.reset();
+    }
+
+    private static long timeout(Map<Path, Long> due) {
+        final long now = System.nanoTime();
+        long wait = Long.MAX_VALUE;
+
+        for (long deadline : due.values()) {
+            wait = Math.min(wait, deadline - now);
+        }
+
+        return Math.max(0L, wait);
+    }
+
+    private void report(Path file) {
+        try {
+            changed.accept(file);
+        } catch (RuntimeException e) {
+            logger.error("Could not handle a change to " + file, e);
+        }
+    }
+
+}
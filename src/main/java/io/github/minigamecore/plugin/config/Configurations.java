@@ -31,66 +31,167 @@
 import static java.util.stream.Collectors.toList;
 import static org.spongepowered.api.Sponge.getAssetManager;
 import static org.spongepowered.api.Sponge.getPluginManager;
+import static org.spongepowered.api.Sponge.getServiceManager;
 
+import io.github.minigamecore.api.MinigameService;
 import io.github.minigamecore.api.util.config.Configuration;
 import io.github.minigamecore.plugin.MinigameCore;
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
 import org.slf4j.Logger;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
 
 /**
  * Util class for handling all the MinigameCore specific configurations.
+ *
+ * <p>
+ *     Configurations are registered as handles. The default asset of a
+ *     configuration is only looked up, and its file only loaded, when it is
+ *     first accessed through {@link #get(String)} or {@link #getAll()}.
+ *     From then on it is registered with the
+ *     {@link io.github.minigamecore.api.util.config.ConfigurationManager}
+ *     like any other configuration.
+ * </p>
  */
 public final class Configurations {
 
-    private static Map<String, Configuration> configMap = new HashMap<>();
+    private static final Map<String, Handle> configMap = new ConcurrentHashMap<>();
+    // Shared with the ConfigurationManager, which does not exist yet when global.conf is loaded.
+    private static final ConfigurationStats stats = new ConfigurationStats();
 
     private Configurations() {
     }
 
-    @SuppressWarnings("OptionalGetWithoutIsPresent")
     public static void register() {
-        MinigameCore plugin = (MinigameCore) getPluginManager().getPlugin("minigamecore").get().getInstance().get();
-
-        addConfig("global", new Configuration(plugin.getConfigDir().resolve("global.conf"), getAssetManager().getAsset(plugin, "config/global.conf")
-                .get()));
+        addConfig("global", "global.conf");
     }
 
-    private static void addConfig(String key, Configuration config) {
+    private static void addConfig(String key, String file) {
         checkNotNull(key, "key");
-        checkNotNull(config, "configuration");
+        checkNotNull(file, "file");
 
-        configMap.put(key, config);
+        configMap.putIfAbsent(key, new Handle(file));
     }
 
+    /**
+     * Gets a configuration, loading it on first access.
+     */
     public static Optional<Configuration> get(String key) {
-        return configMap.containsKey(key) ? of(configMap.get(key)) : empty();
+        final Handle handle = configMap.get(key);
+        return (handle == null) ? empty() : of(handle.get());
     }
 
+    /**
+     * Gets every configuration, loading the ones that were not accessed yet.
+     */
     public static List<Configuration> getAll() {
-        return configMap.entrySet().stream().map(Map.Entry::getValue).collect(toList());
+        return configMap.values().stream().map(Handle::get).collect(toList());
+    }
+
+    static ConfigurationStats getStats() {
+        return stats;
     }
 
     // Special case for global.conf.
-    @SuppressWarnings("OptionalGetWithoutIsPresent")
+    // The parsed configuration cache is used from the start, entries only exist if it was enabled before.
     public static void loadGlobal(Logger logger) {
         try {
-            get("global").get().load();
+            ConfigurationFiles.setCache(plugin().getConfigDir().resolve(".cache"));
+        } catch (IOException | IllegalStateException e) {
+            logger.warn("Failed to set up the configuration cache.", e);
+        }
+
+        //noinspection OptionalGetWithoutIsPresent
+        final CommentedConfigurationNode node = get("global").get().get();
+
+        if (node == null) {
+            logger.error("Failed to load global configuration. This is going to be a problem!");
+            return;
+        }
+
+        try {
+            if (!node.getNode("configuration", "cache").getBoolean(true)) {
+                ConfigurationFiles.setCache(null);
+            }
         } catch (IOException e) {
-            logger.error("Failed to load global configuration. This is going to be a problem!", e);
+            logger.warn("Failed to clear the configuration cache.", e);
         }
     }
 
     public static void saveGlobal(Logger logger) {
+        //noinspection OptionalGetWithoutIsPresent
+        final Configuration config = get("global").get();
+        final long start = System.nanoTime();
+
         try {
-            Configurations.get("global").get().save();
+            record(config, true, ConfigurationFiles.save(config), start, false);
         } catch (IOException e) {
+            record(config, true, false, start, true);
             logger.error("Failed to save global configuration.", e);
         }
     }
 
+    private static void record(Configuration config, boolean save, boolean performed, long start, boolean failed) {
+        stats.record("minigamecore", ConfigurationFiles.getPath(config).toString(), save, performed, System.nanoTime() - start,
+                failed ? 0L : ConfigurationFiles.getSize(config), failed);
+    }
+
+    @SuppressWarnings("OptionalGetWithoutIsPresent")
+    private static MinigameCore plugin() {
+        return (MinigameCore) getPluginManager().getPlugin("minigamecore").get().getInstance().get();
+    }
+
+    private static final class Handle {
+
+        private final String file;
+        @Nullable private volatile Configuration config;
+
+        Handle(String file) {
+            this.file = file;
+        }
+
+        Configuration get() {
+            Configuration config = this.config;
+
+            if (config != null) {
+                return config;
+            }
+
+            synchronized (this) {
+                if (this.config != null) {
+                    return this.config;
+                }
+
+                final MinigameCore plugin = plugin();
+                //noinspection OptionalGetWithoutIsPresent
+                config = new Configuration(plugin.getConfigDir().resolve(file), getAssetManager().getAsset(plugin, "config/" + file).get());
+
+                final long start = System.nanoTime();
+
+                try {
+                    ConfigurationFiles.load(config);
+                    record(config, false, true, start, false);
+                } catch (IOException e) {
+                    record(config, false, false, start, true);
+                    plugin.getLogger().error("Failed to load " + file + ".", e);
+                }
+
+                this.config = config;
+            }
+
+            // Configurations accessed before the service exists are registered by MinigameCore.
+            final Configuration registered = config;
+            getServiceManager().provide(MinigameService.class)
+                    .ifPresent(service -> service.getConfigurationManager().register(plugin(), registered));
+            return config;
+        }
+
+    }
+
 }
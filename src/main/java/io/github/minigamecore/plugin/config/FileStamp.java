@@ -0,0 +1,93 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.config;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * The size and modification time of a file, which tell if it changed since
+ * it was stamped.
+ *
+ * <p>
+ *     A file is taken to be unchanged when its size and modification time
+ *     both match the stamp. Modification times are kept in 2 second steps on
+ *     FAT and 1 second steps on HFS+ and ext3, so a file changed within
+ *     {@link #GRANULARITY} of its previous change can keep both. A stamp
+ *     taken that soon after the modification time never matches, the file
+ *     is read again instead.
+ * </p>
+ */
+final class FileStamp {
+
+    static final long GRANULARITY = 2000L;
+
+    final long size;
+    final long modified;
+    // If the file was modified long enough before it was stamped for the modification time to tell.
+    final boolean settled;
+
+    private FileStamp(long size, long modified, boolean settled) {
+        this.size = size;
+        this.modified = modified;
+        this.settled = settled;
+    }
+
+    /**
+     * Stamps a file.
+     *
+     * @param attributes The attributes of the file
+     * @param now The current time in milliseconds
+     * @return The stamp
+     */
+    static FileStamp of(BasicFileAttributes attributes, long now) {
+        final long modified = attributes.lastModifiedTime().toMillis();
+        return new FileStamp(attributes.size(), modified, now - modified > GRANULARITY);
+    }
+
+    static FileStamp read(DataInputStream in) throws IOException {
+        return new FileStamp(in.readLong(), in.readLong(), in.readBoolean());
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeLong(size);
+        out.writeLong(modified);
+        out.writeBoolean(settled);
+    }
+
+    /**
+     * Checks if a file is unchanged since it was stamped.
+     *
+     * @param attributes The current attributes of the file
+     * @return If the file is unchanged
+     */
+    boolean matches(BasicFileAttributes attributes) {
+        return settled && size == attributes.size() && modified == attributes.lastModifiedTime().toMillis();
+    }
+
+}
@@ -31,9 +31,13 @@
 import io.github.minigamecore.api.MinigameService;
 import io.github.minigamecore.api.util.config.ConfigurationManager;
 import io.github.minigamecore.api.util.manager.GuiceManager;
+import io.github.minigamecore.plugin.config.ConfigurationStats;
 import io.github.minigamecore.plugin.util.logger.MinigameCoreLogger;
+import io.github.minigamecore.plugin.util.trace.Tracer;
 import org.slf4j.Logger;
 
+import java.util.List;
+
 import javax.annotation.Nonnull;
 
 /*
@@ -45,12 +49,14 @@ public final class MinigameServiceImpl implements MinigameService {
     private Injector injector;
     private final ConfigurationManager configManager;
     private final GuiceManager guiceManager;
+    private final ConfigurationStats configStats;
     private final Logger logger = new MinigameCoreLogger("MinigameService");
 
     @Inject
-    private MinigameServiceImpl(ConfigurationManager configManager, GuiceManager guiceManager) {
+    private MinigameServiceImpl(ConfigurationManager configManager, GuiceManager guiceManager, ConfigurationStats configStats) {
         this.configManager = configManager;
         this.guiceManager = guiceManager;
+        this.configStats = configStats;
     }
 
     @Nonnull
@@ -65,5 +71,21 @@ public GuiceManager getGuiceManager() {
         return guiceManager;
     }
 
+    /**
+     * Gets the load and save timings of all configuration files.
+     */
+    @Nonnull
+    public ConfigurationStats getConfigurationStats() {
+        return configStats;
+    }
+
+    /**
+     * Gets the timed startup and reload phases, oldest first.
+     */
+    @Nonnull
+    public List<Tracer.Span> getSpans() {
+        return Tracer.getSpans();
+    }
+
 
 }
@@ -0,0 +1,221 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.util.logger;
+
+import static com.google.common.base.Throwables.getStackTraceAsString;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import io.github.minigamecore.plugin.util.logger.LoggingSettings.FsyncPolicy;
+import io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.Level;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Writes log segments in the compact binary format read by
+ * {@link LogDecoder}.
+ *
+ * <p>
+ *     A segment starts with the {@link #MAGIC} and {@link #VERSION}, followed
+ *     by entries that each start with a tag byte. Logger names and message
+ *     templates are interned per segment: the first use writes a
+ *     {@link #NAME} or {@link #TEMPLATE} entry with a new id, records refer
+ *     to the id afterwards. A {@link #RECORD} entry holds the epoch
+ *     nanosecond timestamp, the level ordinal, the name and template ids, the
+ *     rendered arguments and an optional stack trace.
+ * </p>
+ *
+ * <p>
+ *     Integers are written as unsigned varints, strings as a varint byte
+ *     length followed by UTF-8.
+ * </p>
+ */
+final class BinaryLogWriter extends LogWriter {
+
+    static final int MAGIC = 0x4D47434C; // MGCL
+    static final byte VERSION = 1;
+    static final byte NAME = 1;
+    static final byte TEMPLATE = 2;
+    static final byte RECORD = 3;
+
+    // Used for lines that did not come from a template.
+    private static final String VERBATIM = "{}";
+
+    private final Map<String, Integer> names = new HashMap<>();
+    private final Map<String, Integer> templates = new HashMap<>();
+
+    BinaryLogWriter(Path path, FsyncPolicy fsync) throws IOException {
+        super(path, fsync);
+
+        if (size() == 0) {
+            ensure(5).putInt(MAGIC).put(VERSION);
+        }
+    }
+
+    @Override
+    void append(LogRecord record) throws IOException {
+        int count = record.argumentCount();
+        Throwable throwable = record.throwable;
+
+        // A trailing throwable without a placeholder is SLF4J's throwable argument.
+        if (throwable == null && count > placeholders(record.format) && record.argument(count - 1) instanceof Throwable) {
+            throwable = (Throwable) record.argument(--count);
+        }
+
+        final int name = intern(names, NAME, record.logger.getName());
+        final int template = intern(templates, TEMPLATE, record.format);
+
+        writeHeader(record.time, record.level, name, template, count);
+
+        for (int i = 0; i < count; i++) {
+            writeString(toString(record.argument(i)));
+        }
+
+        writeThrowable(throwable);
+    }
+
+    @Override
+    void append(long time, Level level, String name, String message) throws IOException {
+        final int nameId = intern(names, NAME, name);
+        final int template = intern(templates, TEMPLATE, VERBATIM);
+
+        writeHeader(time, level, nameId, template, 1);
+        writeString(message);
+        writeThrowable(null);
+    }
+
+    private void writeHeader(long time, Level level, int name, int template, int count) throws IOException {
+        ByteBuffer buffer = ensure(25);
+        buffer.put(RECORD).putLong(time).put((byte) level.ordinal());
+        putVarInt(buffer, name);
+        putVarInt(buffer, template);
+        putVarInt(buffer, count);
+    }
+
+    private void writeThrowable(@Nullable Throwable throwable) throws IOException {
+        ensure(1).put((byte) (throwable == null ? 0 : 1));
+
+        if (throwable != null) {
+            writeString(getStackTraceAsString(throwable));
+        }
+    }
+
+    private int intern(Map<String, Integer> ids, byte tag, String value) throws IOException {
+        Integer id = ids.get(value);
+
+        if (id == null) {
+            id = ids.size();
+            ids.put(value, id);
+
+            ByteBuffer buffer = ensure(6);
+            buffer.put(tag);
+            putVarInt(buffer, id);
+            writeString(value);
+        }
+
+        return id;
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF_8);
+        putVarInt(ensure(5), bytes.length);
+        put(bytes);
+    }
+
+    private static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        buffer.put((byte) value);
+    }
+
+    static int placeholders(String template) {
+        int count = 0;
+        int index = template.indexOf("{}");
+
+        while (index != -1) {
+            if (index == 0 || template.charAt(index - 1) != '\\') {
+                count++;
+            }
+
+            index = template.indexOf("{}", index + 2);
+        }
+
+        return count;
+    }
+
+    // Like toString, without creating a string for text and boxed integers.
+    static StringBuilder render(StringBuilder builder, @Nullable Object argument) {
+        if (argument instanceof String) {
+            return builder.append((String) argument);
+        }
+
+        if (argument instanceof Integer || argument instanceof Long || argument instanceof Short || argument instanceof Byte) {
+            return builder.append(((Number) argument).longValue());
+        }
+
+        if (argument instanceof Boolean) {
+            return builder.append(((Boolean) argument).booleanValue());
+        }
+
+        if (argument instanceof Character) {
+            return builder.append(((Character) argument).charValue());
+        }
+
+        return builder.append(toString(argument));
+    }
+
+    // Mirrors how SLF4J renders arguments.
+    static String toString(@Nullable Object argument) {
+        if (argument == null) {
+            return "null";
+        }
+
+        try {
+            if (!argument.getClass().isArray()) {
+                return argument.toString();
+            }
+
+            if (argument instanceof Object[]) {
+                return Arrays.deepToString((Object[]) argument);
+            }
+
+            String text = Arrays.deepToString(new Object[] {argument});
+            return text.substring(1, text.length() - 1);
+        } catch (RuntimeException e) {
+            return "[FAILED toString()]";
+        }
+    }
+
+}
@@ -0,0 +1,241 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.util.logger;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import io.github.minigamecore.plugin.util.logger.LoggingSettings.OverflowPolicy;
+import io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.Level;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+/**
+ * Keeps the {@link LogRingBuffer} within a record and a memory budget.
+ *
+ * <p>
+ *     The memory held by a record is estimated when it is buffered and
+ *     released when it is drained. Records that do not fit are handled by
+ *     the configured {@link OverflowPolicy}, dropped records are counted per
+ *     level until the next {@link #takeDropReport()}. Records meant for the
+ *     console are never evicted, so they reach the console in the order they
+ *     were buffered.
+ * </p>
+ */
+final class LogBuffer {
+
+    private static final long BLOCK_TIMEOUT = SECONDS.toNanos(1L);
+    private static final int EVICT_ATTEMPTS = 16;
+
+    private final LogRingBuffer ring;
+    private final long memory;
+    private final OverflowPolicy policy;
+    private final Runnable flushRequest;
+    @Nullable private final LogJournal journal;
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLongArray dropped = new AtomicLongArray(Level.values().length);
+    private volatile Thread drainer;
+
+    /**
+     * Creates a new log buffer.
+     *
+     * @param settings The logging settings
+     * @param flushRequest Asks for a flush ahead of schedule, used while
+     *     blocking
+     * @param journal Receives every buffered record, if any
+     */
+    LogBuffer(LoggingSettings settings, Runnable flushRequest, @Nullable LogJournal journal) {
+        this.ring = new LogRingBuffer(settings.bufferSize);
+        this.memory = settings.bufferMemory;
+        this.policy = settings.overflow;
+        this.flushRequest = flushRequest;
+        this.journal = journal;
+    }
+
+    /**
+     * Buffers a record.
+     *
+     * @param route Where the record goes, see {@link LogRecord#SAVE} and
+     *     {@link LogRecord#CONSOLE}
+     * @return If the record was buffered
+     */
+    boolean offer(long time, Level level, MinigameCoreLogger logger, @Nullable Marker marker, int route, String format, int arity,
+            @Nullable Object arg1, @Nullable Object arg2, @Nullable Object[] arguments, @Nullable Throwable throwable) {
+        final int weight = weigh(format, arity, arguments, throwable);
+        final long sequence = claim(level, weight);
+
+        if (sequence < 0) {
+            if ((route & LogRecord.SAVE) != 0) {
+                dropped.incrementAndGet(level.ordinal());
+            }
+
+            return false;
+        }
+
+        LogRecord record = ring.slot(sequence);
+        record.set(time, level, logger, marker, route, format, arity, arg1, arg2, arguments, throwable);
+        record.sequence = sequence;
+        record.weight = weight;
+
+        if (journal != null) {
+            journal.append(record);
+        }
+
+        ring.publish(sequence);
+        return true;
+    }
+
+    /**
+     * Drains up to {@code limit} records, oldest first.
+     *
+     * @return The number of records drained
+     */
+    int drain(Consumer<LogRecord> consumer, int limit) {
+        drainer = Thread.currentThread();
+
+        try {
+            return ring.drain(record -> {
+                bytes.addAndGet(-record.weight);
+                consumer.accept(record);
+            }, limit);
+        } finally {
+            drainer = null;
+        }
+    }
+
+    /**
+     * Resets the drop counters.
+     *
+     * @return A summary of the records dropped since the last report, or
+     *     {@code null} if none were dropped
+     */
+    @Nullable
+    String takeDropReport() {
+        final StringBuilder counts = new StringBuilder();
+        long total = 0;
+
+        for (Level level : Level.values()) {
+            final long count = dropped.getAndSet(level.ordinal(), 0L);
+
+            if (count > 0) {
+                counts.append(counts.length() == 0 ? "" : ", ").append(level.name().toLowerCase()).append('=').append(count);
+                total += count;
+            }
+        }
+
+        if (total == 0) {
+            return null;
+        }
+
+        return "Dropped " + total + " log records (" + counts + ") under the " + policy.name().toLowerCase().replace('_', '-')
+                + " overflow policy, the log buffer was full";
+    }
+
+    private long claim(Level level, int weight) {
+        if (policy == OverflowPolicy.DROP_DEBUG_FIRST && level.compareTo(Level.INFO) < 0 && isFilling()) {
+            return -1;
+        }
+
+        long deadline = 0;
+        int attempts = 0;
+
+        while (true) {
+            if (reserve(weight)) {
+                final long sequence = ring.claim();
+
+                if (sequence >= 0) {
+                    return sequence;
+                }
+
+                bytes.addAndGet(-weight);
+            }
+
+            switch (policy) {
+                case BLOCK:
+                    // The flusher logs as well, it must never wait for itself.
+                    if (Thread.currentThread() == drainer || Thread.holdsLock(MinigameCoreLoggerUtil.class)) {
+                        return -1;
+                    }
+
+                    if (deadline == 0) {
+                        deadline = System.nanoTime() + BLOCK_TIMEOUT;
+                        flushRequest.run();
+                    } else if (System.nanoTime() - deadline > 0) {
+                        return -1;
+                    }
+
+                    LockSupport.parkNanos(100000L);
+                    break;
+                case DROP_OLDEST:
+                    if (!ring.dropOldest(record -> !record.isConsole(), this::evicted) && ++attempts >= EVICT_ATTEMPTS) {
+                        return -1;
+                    }
+                    break;
+                default:
+                    if (!ring.dropOldest(record -> !record.isConsole() && record.level.compareTo(Level.WARN) < 0, this::evicted)
+                            && ++attempts >= EVICT_ATTEMPTS) {
+                        return -1;
+                    }
+            }
+        }
+    }
+
+    private boolean reserve(int weight) {
+        while (true) {
+            final long current = bytes.get();
+
+            // A single record larger than the budget still fits an empty buffer.
+            if (current > 0 && current + weight > memory) {
+                return false;
+            }
+
+            if (bytes.compareAndSet(current, current + weight)) {
+                return true;
+            }
+        }
+    }
+
+    private void evicted(LogRecord record) {
+        bytes.addAndGet(-record.weight);
+        dropped.incrementAndGet(record.level.ordinal());
+    }
+
+    private boolean isFilling() {
+        return ring.size() * 4L >= ring.capacity() * 3L || bytes.get() * 4L >= memory * 3L;
+    }
+
+    // A rough estimate of the memory a buffered record keeps reachable.
+    private static int weigh(String format, int arity, @Nullable Object[] arguments, @Nullable Throwable throwable) {
+        final int count = (arity == LogRecord.VARARGS) ? ((arguments == null) ? 0 : arguments.length) : arity;
+        return 64 + 2 * format.length() + 32 * count + ((throwable == null) ? 0 : 2048);
+    }
+
+}
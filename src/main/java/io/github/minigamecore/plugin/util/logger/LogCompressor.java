@@ -0,0 +1,137 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.util.logger;
+
+import static java.lang.String.format;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses closed log segments and prunes the {@link LogDirectory} on a
+ * background thread.
+ */
+final class LogCompressor {
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("minigamecore-log-compressor")
+            .setDaemon(true)
+            .build());
+    private final Logger logger;
+    private final LogDirectory directory;
+
+    LogCompressor(Logger logger, LogDirectory directory) {
+        this.logger = logger;
+        this.directory = directory;
+    }
+
+    /**
+     * Queues a closed segment to be compressed to {@code <segment>.gz}.
+     *
+     * <p>
+     *     The segment is deleted once it has been compressed, after which the
+     *     directory is pruned.
+     * </p>
+     */
+    void submit(Path segment, LoggingSettings settings) {
+        executor.execute(() -> {
+            try {
+                directory.archived(compress(segment, settings.compressionLevel));
+            } catch (IOException e) {
+                logger.error(format("Error compressing %s", segment), e);
+            }
+
+            directory.prune(settings.retentionAge, settings.retentionSize);
+        });
+    }
+
+    /**
+     * Queues pruning the directory.
+     */
+    void prune(LoggingSettings settings) {
+        executor.execute(() -> directory.prune(settings.retentionAge, settings.retentionSize));
+    }
+
+    /**
+     * Waits for the queued segments to be compressed.
+     *
+     * @return If every queued segment was compressed in time
+     */
+    boolean shutdown(long timeout, TimeUnit unit) {
+        executor.shutdown();
+
+        try {
+            return executor.awaitTermination(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    static Path compress(Path segment, int level) throws IOException {
+        final Path target = Paths.get(segment.toString() + ".gz");
+
+        try (InputStream inputStream = Files.newInputStream(segment);
+                OutputStream outputStream = new LevelGZIPOutputStream(Files.newOutputStream(target), level)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+
+            while ((length = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, length);
+            }
+        } catch (IOException e) {
+            // Should the compressing fail, the original file should exist.
+            Files.deleteIfExists(target);
+            throw e;
+        }
+
+        Files.deleteIfExists(segment);
+        return target;
+    }
+
+    private static final class LevelGZIPOutputStream extends GZIPOutputStream {
+
+        LevelGZIPOutputStream(OutputStream out, int level) throws IOException {
+            super(out, BUFFER_SIZE);
+            def.setLevel(level);
+        }
+
+    }
+
+}
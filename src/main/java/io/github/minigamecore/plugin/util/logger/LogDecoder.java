@@ -0,0 +1,208 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.util.logger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.Level;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Turns binary log segments written by {@link BinaryLogWriter} back into
+ * text log lines.
+ *
+ * <p>
+ *     Usage: {@code java -cp MinigameCore.jar
+ *     io.github.minigamecore.plugin.util.logger.LogDecoder <segment>...}.
+ *     Both {@code .bin} and {@code .bin.gz} segments are accepted, the lines
+ *     are printed to standard output.
+ * </p>
+ */
+public final class LogDecoder {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private LogDecoder() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: LogDecoder <segment.bin[.gz]>...");
+            System.exit(1);
+        }
+
+        for (String arg : args) {
+            try {
+                decode(Paths.get(arg), System.out::println);
+            } catch (IOException e) {
+                System.err.println("Could not decode " + arg + ": " + e.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Decodes a {@code .bin} or {@code .bin.gz} segment.
+     *
+     * @param segment The segment
+     * @param lines Receives every decoded line, without a line separator
+     * @throws IOException If the segment could not be read or is malformed
+     */
+    public static void decode(Path segment, Consumer<String> lines) throws IOException {
+        final boolean compressed = segment.getFileName().toString().endsWith(".gz");
+
+        // The file is opened on its own, so it is closed when the GZIP header cannot be read.
+        try (InputStream file = Files.newInputStream(segment);
+                InputStream inputStream = compressed ? new GZIPInputStream(file, BUFFER_SIZE) : file) {
+            decode(new DataInputStream(new BufferedInputStream(inputStream, BUFFER_SIZE)), lines);
+        } catch (EOFException ignored) {
+            // A segment that was cut off, everything before the torn entry was decoded.
+        }
+    }
+
+    private static void decode(DataInputStream in, Consumer<String> lines) throws IOException {
+        if (in.readInt() != BinaryLogWriter.MAGIC) {
+            throw new IOException("Not a MinigameCore binary log segment");
+        }
+
+        final byte version = in.readByte();
+
+        if (version != BinaryLogWriter.VERSION) {
+            throw new IOException("Unsupported binary log version " + version);
+        }
+
+        final List<String> names = new ArrayList<>();
+        final List<String> templates = new ArrayList<>();
+        final Level[] levels = Level.values();
+        final StringBuilder line = new StringBuilder(256);
+
+        while (true) {
+            final int tag = in.read();
+
+            if (tag == -1) {
+                return;
+            }
+
+            switch (tag) {
+                case BinaryLogWriter.NAME:
+                    define(names, readVarInt(in), readString(in));
+                    break;
+                case BinaryLogWriter.TEMPLATE:
+                    define(templates, readVarInt(in), readString(in));
+                    break;
+                case BinaryLogWriter.RECORD:
+                    final long time = in.readLong();
+                    final Level level = levels[in.readByte()];
+                    final String name = names.get(readVarInt(in));
+                    final String template = templates.get(readVarInt(in));
+                    final String[] arguments = new String[readVarInt(in)];
+
+                    for (int i = 0; i < arguments.length; i++) {
+                        arguments[i] = readString(in);
+                    }
+
+                    final String stamp = LogLines.formatTime(time);
+                    line.setLength(0);
+                    lines.accept(LogLines.formatLine(line, stamp, level, name, substitute(template, arguments)).toString());
+
+                    if (in.readByte() != 0) {
+                        line.setLength(0);
+                        lines.accept(LogLines.formatLine(line, stamp, level, name, readString(in)).toString());
+                    }
+                    break;
+                default:
+                    throw new IOException("Unknown entry tag " + tag);
+            }
+        }
+    }
+
+    private static void define(List<String> values, int id, String value) throws IOException {
+        if (id != values.size()) {
+            throw new IOException("Out of order id " + id);
+        }
+
+        values.add(value);
+    }
+
+    // SLF4J style substitution, \{} escapes a placeholder.
+    static String substitute(String template, String[] arguments) {
+        final StringBuilder builder = new StringBuilder(template.length() + 16 * arguments.length);
+        int start = 0;
+        int argument = 0;
+
+        while (argument < arguments.length) {
+            int index = template.indexOf("{}", start);
+
+            if (index == -1) {
+                break;
+            }
+
+            if (index > 0 && template.charAt(index - 1) == '\\') {
+                builder.append(template, start, index - 1).append("{}");
+            } else {
+                builder.append(template, start, index).append(arguments[argument++]);
+            }
+
+            start = index + 2;
+        }
+
+        return builder.append(template, start, template.length()).toString();
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed varint");
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+}
@@ -0,0 +1,208 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.util.logger;
+
+import static java.lang.String.format;
+
+import io.github.minigamecore.plugin.util.logger.LoggingSettings.SegmentFormat;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+/**
+ * Names the log segments of a log directory and prunes its compressed
+ * segments.
+ *
+ * <p>
+ *     The directory is listed once when it is opened, after that the next
+ *     index of every date is kept in memory. Segments are named
+ *     {@code <date>-<index><extension>}, the indexes are shared between the
+ *     segment formats.
+ * </p>
+ *
+ * <p>
+ *     {@link #next(String, SegmentFormat)} is used by the flusher,
+ *     {@link #archived(Path)} and {@link #prune(long, long)} only by the
+ *     {@link LogCompressor} thread.
+ * </p>
+ */
+final class LogDirectory {
+
+    static final Pattern SEGMENT = Pattern.compile("(\\d{4}-\\d{2}-\\d{2})-(\\d+)\\.[a-z]+(\\.gz)?");
+    // Oldest first, ISO dates sort as text.
+    static final Comparator<Matcher> ORDER = Comparator.<Matcher, String>comparing(matcher -> matcher.group(1))
+            .thenComparingInt(matcher -> Integer.parseInt(matcher.group(2)));
+
+    private final Path path;
+    private final Logger logger;
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final Deque<Archive> archives = new ArrayDeque<>();
+    private final List<Path> unsealed = new ArrayList<>();
+    @Nullable private List<Path> scanned;
+    private long archivedSize;
+
+    private LogDirectory(Path path, Logger logger) {
+        this.path = path;
+        this.logger = logger;
+    }
+
+    /**
+     * Creates the directory if needed and lists its segments.
+     */
+    static LogDirectory open(Path path, Logger logger) throws IOException {
+        final LogDirectory directory = new LogDirectory(path, logger);
+        final List<Matcher> archives = new ArrayList<>();
+
+        Files.createDirectories(path);
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+            for (Path file : stream) {
+                final Matcher matcher = SEGMENT.matcher(file.getFileName().toString());
+
+                if (!matcher.matches()) {
+                    continue;
+                }
+
+                directory.indexes.merge(matcher.group(1), Integer.parseInt(matcher.group(2)), Math::max);
+
+                if (matcher.group(3) != null) {
+                    archives.add(matcher);
+                } else {
+                    directory.unsealed.add(file);
+                }
+            }
+        }
+
+        archives.sort(ORDER);
+        directory.scanned = new ArrayList<>(archives.size());
+        archives.forEach(matcher -> directory.scanned.add(path.resolve(matcher.group())));
+        return directory;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the segments that were left uncompressed, by a crash or a failed
+     * compression. Only valid before the first segment is opened.
+     */
+    List<Path> getUnsealed() {
+        return unsealed;
+    }
+
+    /**
+     * Gets the path of the next segment of {@code date}.
+     */
+    Path next(String date, SegmentFormat format) {
+        return path.resolve(date + "-" + indexes.merge(date, 1, Integer::sum) + format.extension);
+    }
+
+    /**
+     * Adds a newly compressed segment, it is the newest one.
+     */
+    void archived(Path archive) {
+        load();
+        add(archive);
+    }
+
+    /**
+     * Deletes the oldest compressed segments until none is older than
+     * {@code maxAge} and they take up at most {@code maxSize} bytes.
+     *
+     * @param maxAge The age in milliseconds, 0 for no limit
+     * @param maxSize The size in bytes, 0 for no limit
+     */
+    void prune(long maxAge, long maxSize) {
+        load();
+        final long now = System.currentTimeMillis();
+
+        while (!archives.isEmpty()) {
+            final Archive oldest = archives.peekFirst();
+
+            if ((maxAge == 0 || now - oldest.modified <= maxAge) && (maxSize == 0 || archivedSize <= maxSize)) {
+                break;
+            }
+
+            archives.removeFirst();
+            archivedSize -= oldest.size;
+
+            try {
+                Files.deleteIfExists(oldest.path);
+            } catch (IOException e) {
+                logger.warn(format("Could not delete %s", oldest.path), e);
+            }
+        }
+    }
+
+    // The archives found by open are only looked at on the compressor thread.
+    private void load() {
+        if (scanned != null) {
+            scanned.forEach(this::add);
+            scanned = null;
+        }
+    }
+
+    private void add(Path archive) {
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(archive, BasicFileAttributes.class);
+            archives.addLast(new Archive(archive, attributes.size(), attributes.lastModifiedTime().toMillis()));
+            archivedSize += attributes.size();
+        } catch (IOException ignored) {
+            // Deleted in the meantime.
+        }
+    }
+
+    private static final class Archive {
+
+        final Path path;
+        final long size;
+        final long modified;
+
+        Archive(Path path, long size, long modified) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+        }
+
+    }
+
+}
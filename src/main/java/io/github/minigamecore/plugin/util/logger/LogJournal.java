@@ -0,0 +1,556 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.util.logger;
+
+import static com.google.common.base.Throwables.getStackTraceAsString;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.Level;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import javax.annotation.Nullable;
+
+/**
+ * A memory mapped journal of the records that are saved to a text log
+ * segment.
+ *
+ * <p>
+ *     Producers append every record as soon as it is buffered, tagged with
+ *     its ring buffer sequence. Only the raw fields are journaled, the time,
+ *     level, logger name, format, arguments and the stack trace of the
+ *     throwable, the lines are rendered by {@link #recover}. Records that
+ *     are not saved leave an empty entry, so the sequences in the journal
+ *     have no gaps until it wraps around. The operating system keeps the
+ *     mapped pages after the JVM dies, so the journal holds the records that
+ *     were never flushed.
+ * </p>
+ *
+ * <p>
+ *     The flusher checkpoints the last sequence it wrote and the size the
+ *     segment had at that point, the {@link LogWriter} does the same right
+ *     before it writes its buffers. A checkpoint is only trusted once the
+ *     segment is at least as large as it says, so the trusted checkpoint
+ *     names the last record in the segment, and recovery skips every entry
+ *     up to it.
+ * </p>
+ *
+ * <p>
+ *     The journal is circular, entries are overwritten once it is full.
+ *     Every entry carries the epoch of the journal, a random number drawn
+ *     when it is opened, and a checksum, so recovery can scan it without
+ *     knowing where the entries start. The header holds two checkpoint slots
+ *     that are written alternately, one of them is always intact.
+ * </p>
+ */
+final class LogJournal implements Closeable {
+
+    private static final int MAGIC = 0x4D474A4C; // MGJL
+    private static final int VERSION = 2;
+    private static final int ENTRY = 0x4D474A45; // MGJE
+    private static final int HEADER_SIZE = 4096;
+    private static final int SLOT_SIZE = 128;
+    private static final int MAX_NAME = 64;
+    // Magic, length, epoch, sequence and checksum.
+    private static final int ENTRY_HEADER = 28;
+    private static final int ALIGN = 8;
+
+    // The kinds of entries, the first byte of the payload.
+    private static final byte UNSAVED = 0;
+    private static final byte RECORD = 1;
+    private static final byte OVERSIZED = 2;
+
+    private static final ThreadLocal<Scratch> scratches = ThreadLocal.withInitial(Scratch::new);
+
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final int capacity;
+    private final long epoch = new Random().nextLong();
+    private final AtomicLong position = new AtomicLong();
+    private long counter;
+
+    private LogJournal(FileChannel channel, int capacity) throws IOException {
+        this.channel = channel;
+        this.capacity = capacity;
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0L, HEADER_SIZE + (long) capacity);
+    }
+
+    /**
+     * Opens a new journal, replacing the one at {@code path}, which should
+     * be recovered first.
+     *
+     * @param capacity The size of the entry area in bytes
+     */
+    static LogJournal open(Path path, int capacity) throws IOException {
+        final FileChannel channel = FileChannel.open(path, CREATE, READ, WRITE);
+
+        try {
+            channel.truncate(0L);
+            final LogJournal journal = new LogJournal(channel, capacity);
+            journal.map.putInt(0, MAGIC).putInt(4, VERSION);
+            return journal;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a record, called by the producer before the record is
+     * published.
+     */
+    void append(LogRecord record) {
+        final Scratch scratch = scratches.get();
+        // Records that do not fit the journal at all leave a marker.
+        final int limit = capacity - ENTRY_HEADER;
+
+        scratch.bytes.clear();
+
+        if (!record.isSaved()) {
+            scratch.bytes.put(UNSAVED);
+        } else if (!encode(scratch, record, limit)) {
+            scratch.bytes.clear();
+            scratch.bytes.put(OVERSIZED);
+        }
+
+        // Taken after encoding, which may have replaced the buffer with a larger one.
+        final ByteBuffer payload = scratch.bytes;
+        payload.flip();
+        final int length = payload.remaining();
+        final int checksum = checksum(scratch.crc, record.sequence, payload);
+        final int offset = HEADER_SIZE + claim(align(ENTRY_HEADER + length));
+        final ByteBuffer buffer = map.duplicate();
+        buffer.position(offset + 4);
+        buffer.putInt(length).putLong(epoch).putLong(record.sequence).putInt(checksum).put(payload);
+        // The magic goes last, an entry cut off by a crash is not picked up.
+        buffer.putInt(offset, ENTRY);
+    }
+
+    // Writes the raw fields, the arguments as BinaryLogWriter renders them.
+    private static boolean encode(Scratch scratch, LogRecord record, int limit) {
+        int count = record.argumentCount();
+        Throwable throwable = record.throwable;
+
+        // A trailing throwable without a placeholder is SLF4J's throwable argument.
+        if (throwable == null && count > BinaryLogWriter.placeholders(record.format) && record.argument(count - 1) instanceof Throwable) {
+            throwable = (Throwable) record.argument(--count);
+        }
+
+        if (!scratch.ensure(14, limit)) {
+            return false;
+        }
+
+        scratch.bytes.put(RECORD).putLong(record.time).put((byte) record.level.ordinal());
+
+        if (!scratch.put(record.logger.getName(), limit) || !scratch.put(record.format, limit) || !scratch.ensure(4, limit)) {
+            return false;
+        }
+
+        scratch.bytes.putInt(count);
+
+        for (int i = 0; i < count; i++) {
+            scratch.text.setLength(0);
+
+            if (!scratch.put(BinaryLogWriter.render(scratch.text, record.argument(i)), limit)) {
+                return false;
+            }
+        }
+
+        if (!scratch.ensure(1, limit)) {
+            return false;
+        }
+
+        scratch.bytes.put((byte) (throwable == null ? 0 : 1));
+        return throwable == null || scratch.put(getStackTraceAsString(throwable), limit);
+    }
+
+    // Entries never wrap around, the rest of the area is skipped instead.
+    private int claim(int size) {
+        while (true) {
+            final long current = position.get();
+            final int offset = (int) (current % capacity);
+            final long start = (offset + size > capacity) ? current + capacity - offset : current;
+
+            if (position.compareAndSet(current, start + size)) {
+                return (int) (start % capacity);
+            }
+        }
+    }
+
+    /**
+     * Records that every record up to {@code sequence} is in
+     * {@code segment}, which was {@code size} bytes long at that point.
+     */
+    void checkpoint(long sequence, Path segment, long size) {
+        final byte[] name = segment.getFileName().toString().getBytes(UTF_8);
+        final int slot = 64 + (int) (counter & 1L) * SLOT_SIZE;
+        final ByteBuffer buffer = map.duplicate();
+
+        if (name.length > MAX_NAME) {
+            return;
+        }
+
+        counter++;
+        buffer.position(slot);
+        buffer.putLong(counter).putLong(epoch).putLong(sequence).putLong(size).putInt(name.length).put(name);
+        buffer.putInt(slot + SLOT_SIZE - 4, slotChecksum(buffer, slot));
+    }
+
+    @Override
+    public void close() throws IOException {
+        // The mapping itself is released once it is garbage collected.
+        channel.close();
+    }
+
+    /**
+     * Recovers the records of a journal left behind by a crash.
+     *
+     * <p>
+     *     The checkpointed segment is truncated to its checkpointed size,
+     *     which drops a torn last line, and the records newer than the
+     *     checkpoint are appended to it. Records the journal overwrote before
+     *     they were written are lost. Should the segment not exist anymore,
+     *     the records are written to a new segment.
+     * </p>
+     *
+     * @param path The journal
+     * @param directory The log directory
+     * @param date The date of a new segment
+     * @return The segment the records were written to, or {@code null} if
+     *     there was nothing to recover
+     */
+    @Nullable
+    static Path recover(Path path, LogDirectory directory, String date) throws IOException {
+        final ByteBuffer buffer;
+
+        // Read rather than mapped, a mapping would keep the file from being truncated by open on some platforms.
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            if (channel.size() <= HEADER_SIZE || channel.size() > HEADER_SIZE + 1024L * 1024L * 1024L) {
+                return null;
+            }
+
+            buffer = ByteBuffer.allocate((int) channel.size());
+
+            //noinspection StatementWithEmptyBody
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+            }
+
+            buffer.flip();
+        }
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            return null;
+        }
+
+        final int slot = trustedSlot(buffer, directory.getPath());
+
+        if (slot == -1) {
+            return null;
+        }
+
+        final long epoch = buffer.getLong(slot + 8);
+        final long sequence = buffer.getLong(slot + 16);
+        final long size = buffer.getLong(slot + 24);
+        final byte[] name = new byte[buffer.getInt(slot + 32)];
+        ((ByteBuffer) buffer.duplicate().position(slot + 36)).get(name);
+
+        final Map<Long, byte[]> entries = scan(buffer, epoch, sequence);
+        Path segment = directory.getPath().resolve(new String(name, UTF_8));
+
+        if (Files.exists(segment)) {
+            try (FileChannel channel = FileChannel.open(segment, READ, WRITE)) {
+                // Anything past the checkpoint belongs to newer records, they are appended again.
+                if (channel.size() > size) {
+                    channel.truncate(size);
+                } else {
+                    endLine(channel);
+                }
+
+                write(channel, entries);
+            }
+
+            return segment;
+        }
+
+        if (entries.values().stream().noneMatch(payload -> payload[0] == RECORD)) {
+            return null;
+        }
+
+        segment = directory.next(date, LoggingSettings.SegmentFormat.TEXT);
+
+        try (FileChannel channel = FileChannel.open(segment, CREATE, WRITE)) {
+            write(channel, entries);
+        }
+
+        return segment;
+    }
+
+    /*
+     * Gets the newest intact checkpoint slot whose segment is at least as
+     * large as it says, a checkpoint is taken before the write it covers.
+     * Should no slot qualify, the oldest intact one is used.
+     */
+    private static int trustedSlot(ByteBuffer buffer, Path directory) throws IOException {
+        int newest = -1;
+        int oldest = -1;
+
+        for (int slot = 64; slot < 64 + 2 * SLOT_SIZE; slot += SLOT_SIZE) {
+            final int length = buffer.getInt(slot + 32);
+
+            if (length < 0 || length > MAX_NAME || buffer.getInt(slot + SLOT_SIZE - 4) != slotChecksum(buffer, slot)) {
+                continue;
+            }
+
+            if (newest == -1 || buffer.getLong(slot) > buffer.getLong(newest)) {
+                oldest = (newest == -1) ? slot : newest;
+                newest = slot;
+            } else {
+                oldest = slot;
+            }
+        }
+
+        if (newest == -1 || newest == oldest) {
+            return newest;
+        }
+
+        final byte[] name = new byte[buffer.getInt(newest + 32)];
+        ((ByteBuffer) buffer.duplicate().position(newest + 36)).get(name);
+        final Path segment = directory.resolve(new String(name, UTF_8));
+
+        return (!Files.exists(segment) || Files.size(segment) >= buffer.getLong(newest + 24)) ? newest : oldest;
+    }
+
+    // Collects the intact entries newer than the checkpoint, by sequence.
+    private static Map<Long, byte[]> scan(ByteBuffer buffer, long epoch, long checkpoint) {
+        final Map<Long, byte[]> entries = new TreeMap<>();
+        final CRC32 crc = new CRC32();
+        final int capacity = buffer.limit() - HEADER_SIZE;
+        int offset = 0;
+
+        while (offset + ENTRY_HEADER <= capacity) {
+            final int at = HEADER_SIZE + offset;
+            final int length = buffer.getInt(at + 4);
+
+            if (buffer.getInt(at) == ENTRY && buffer.getLong(at + 8) == epoch && length > 0
+                    && length <= capacity - offset - ENTRY_HEADER) {
+                final long sequence = buffer.getLong(at + 16);
+                final byte[] payload = new byte[length];
+                ((ByteBuffer) buffer.duplicate().position(at + ENTRY_HEADER)).get(payload);
+
+                if (buffer.getInt(at + 24) == checksum(crc, sequence, ByteBuffer.wrap(payload))) {
+                    if (sequence > checkpoint) {
+                        entries.put(sequence, payload);
+                    }
+
+                    offset += align(ENTRY_HEADER + length);
+                    continue;
+                }
+            }
+
+            offset += ALIGN;
+        }
+
+        return entries;
+    }
+
+    // A torn last line is finished, so the recovered records start on a line of their own.
+    private static void endLine(FileChannel channel) throws IOException {
+        final long size = channel.size();
+        final ByteBuffer last = ByteBuffer.allocate(1);
+
+        if (size > 0 && channel.read(last, size - 1) == 1 && last.get(0) != '\n') {
+            channel.write(ByteBuffer.wrap(new byte[] {'\n'}), size);
+        }
+    }
+
+    private static void write(FileChannel channel, Map<Long, byte[]> entries) throws IOException {
+        final StringBuilder line = new StringBuilder(256);
+        final Level[] levels = Level.values();
+        final Iterator<byte[]> iterator = entries.values().iterator();
+        channel.position(channel.size());
+
+        while (iterator.hasNext()) {
+            final ByteBuffer payload = ByteBuffer.wrap(iterator.next());
+
+            if (payload.get() != RECORD) {
+                continue;
+            }
+
+            try {
+                final long time = payload.getLong();
+                final Level level = levels[payload.get()];
+                final String name = getString(payload);
+                final String format = getString(payload);
+                final String[] arguments = new String[payload.getInt()];
+
+                for (int i = 0; i < arguments.length; i++) {
+                    arguments[i] = getString(payload);
+                }
+
+                final String stamp = LogLines.formatTime(time);
+                line.setLength(0);
+                LogLines.formatLine(line, stamp, level, name, LogDecoder.substitute(format, arguments)).append('\n');
+
+                if (payload.get() != 0) {
+                    LogLines.formatLine(line, stamp, level, name, getString(payload)).append('\n');
+                }
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+                throw new IOException("Broken journal entry", e);
+            }
+
+            final ByteBuffer bytes = UTF_8.encode(line.toString());
+
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+    }
+
+    private static String getString(ByteBuffer payload) {
+        final int length = payload.getInt();
+        final String value = new String(payload.array(), payload.arrayOffset() + payload.position(), length, UTF_8);
+        payload.position(payload.position() + length);
+        return value;
+    }
+
+    private static int checksum(CRC32 crc, long sequence, ByteBuffer payload) {
+        crc.reset();
+
+        for (int shift = 0; shift < 64; shift += 8) {
+            crc.update((int) (sequence >>> shift));
+        }
+
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static int slotChecksum(ByteBuffer buffer, int slot) {
+        final CRC32 crc = new CRC32();
+
+        for (int i = slot; i < slot + SLOT_SIZE - 4; i++) {
+            crc.update(buffer.get(i));
+        }
+
+        return (int) crc.getValue();
+    }
+
+    private static int align(int size) {
+        return (size + ALIGN - 1) & -ALIGN;
+    }
+
+    // The per thread buffers records are encoded into, reused so appending does not allocate.
+    private static final class Scratch {
+
+        final CharsetEncoder encoder = UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        final CRC32 crc = new CRC32();
+        // Arguments are rendered into it.
+        final StringBuilder text = new StringBuilder(256);
+        ByteBuffer bytes = ByteBuffer.allocate(1024);
+        char[] chars = new char[256];
+        CharBuffer charBuffer = CharBuffer.wrap(chars);
+
+        // Makes room for a number of bytes, unless the payload would get larger than the limit.
+        boolean ensure(int count, int limit) {
+            if (bytes.remaining() >= count) {
+                return true;
+            }
+
+            final int needed = bytes.position() + count;
+
+            if (needed > limit) {
+                return false;
+            }
+
+            final ByteBuffer larger = ByteBuffer.allocate(Math.min(limit, Math.max(needed, bytes.capacity() * 2)));
+            bytes.flip();
+            bytes = larger.put(bytes);
+            return true;
+        }
+
+        // Writes the length followed by UTF-8, the characters are copied to a reused buffer first.
+        boolean put(CharSequence value, int limit) {
+            final int length = value.length();
+
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+                charBuffer = CharBuffer.wrap(chars);
+            }
+
+            for (int i = 0; i < length; i++) {
+                chars[i] = value.charAt(i);
+            }
+
+            while (ensure(4, limit)) {
+                final int start = bytes.position();
+                bytes.position(start + 4);
+                charBuffer.limit(length).position(0);
+                encoder.reset();
+                CoderResult result = encoder.encode(charBuffer, bytes, true);
+
+                if (result.isUnderflow()) {
+                    result = encoder.flush(bytes);
+                }
+
+                if (result.isUnderflow()) {
+                    bytes.putInt(start, bytes.position() - start - 4);
+                    return true;
+                }
+
+                bytes.position(start);
+
+                if (!ensure(bytes.remaining() + 1, limit)) {
+                    return false;
+                }
+            }
+
+            return false;
+        }
+
+    }
+
+}
@@ -0,0 +1,221 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.util.logger;
+
+import io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.Level;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Suppresses repeated records and rate limits the records of a
+ * {@link MinigameCoreLogger}.
+ *
+ * <p>
+ *     The first record of a level and message template is logged in full and
+ *     starts a repeat window. Records with the same level and template are
+ *     counted instead of logged until the window is over, whatever their
+ *     arguments, and the count is logged once it is. The template is the key,
+ *     so nothing is formatted to check a record. ERROR records are never
+ *     counted as repeats.
+ * </p>
+ *
+ * <p>
+ *     Records over the rate limit are counted as well. The rate limit is a
+ *     token bucket holding up to a second worth of records, kept as the time
+ *     the bucket is full again so it takes a single compare-and-set.
+ * </p>
+ */
+final class LogLimiter {
+
+    /**
+     * The record should be logged.
+     */
+    static final long PASS = 0L;
+    /**
+     * The record should not be logged.
+     */
+    static final long SUPPRESS = -1L;
+
+    // Keys past this many are not tracked.
+    private static final int MAX_KEYS = 1024;
+
+    private final long window;
+    private final int rate;
+    private final long interval;
+    private final long burst;
+    private final List<ConcurrentMap<String, Repeat>> repeats;
+    private final AtomicLong full = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong limited = new AtomicLong();
+
+    /**
+     * Creates a new limiter.
+     *
+     * @param window The repeat window in nanoseconds, 0 to log repeats
+     * @param rate The most records per second, 0 for no limit
+     */
+    LogLimiter(long window, int rate) {
+        this.window = window;
+        this.rate = rate;
+        this.interval = (rate == 0) ? 0L : 1000000000L / rate;
+        this.burst = interval * rate;
+        this.repeats = new ArrayList<>(Level.values().length);
+
+        for (Level ignored : Level.values()) {
+            repeats.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Checks if records of a level are counted as repeats.
+     */
+    boolean isCounted(Level level) {
+        return window != 0 && level != Level.ERROR;
+    }
+
+    /**
+     * Checks a record.
+     *
+     * @param format The message template of the record, not formatted
+     * @param now The time, see {@link System#nanoTime()}
+     * @return {@link #PASS}, {@link #SUPPRESS}, or the number of repeats
+     *     suppressed before the record when it starts a new repeat window
+     */
+    long check(Level level, String format, long now) {
+        long result = PASS;
+
+        if (isCounted(level)) {
+            result = repeat(repeats.get(level.ordinal()), format, now);
+
+            if (result == SUPPRESS) {
+                return SUPPRESS;
+            }
+        }
+
+        if (interval != 0 && !acquire(now)) {
+            limited.incrementAndGet();
+            return SUPPRESS;
+        }
+
+        return result;
+    }
+
+    private long repeat(ConcurrentMap<String, Repeat> repeats, String format, long now) {
+        final Repeat current = repeats.get(format);
+
+        if (current != null && now - current.start < window) {
+            current.count.incrementAndGet();
+            return SUPPRESS;
+        }
+
+        if (current == null && repeats.size() >= MAX_KEYS) {
+            return PASS;
+        }
+
+        final Repeat next = new Repeat(now);
+
+        if ((current == null) ? repeats.putIfAbsent(format, next) == null : repeats.replace(format, current, next)) {
+            return (current == null) ? PASS : current.count.get();
+        }
+
+        // Another thread started the window first.
+        return SUPPRESS;
+    }
+
+    private boolean acquire(long now) {
+        while (true) {
+            final long current = full.get();
+            final long base = Math.max(current, now);
+
+            if (base + interval - now > burst) {
+                return false;
+            }
+
+            if (full.compareAndSet(current, base + interval)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reports and forgets the counts of the repeat windows that are over and
+     * the records rate limited so far.
+     *
+     * @param now The time, see {@link System#nanoTime()}
+     * @param all Whether to report the windows that are not over yet
+     * @param repeated Receives the level, and the message of every window with
+     *     suppressed repeats
+     * @return The number of records rate limited
+     */
+    long sweep(long now, boolean all, BiConsumer<Level, String> repeated) {
+        final Level[] levels = Level.values();
+
+        for (int i = 0; i < repeats.size(); i++) {
+            final Iterator<Map.Entry<String, Repeat>> iterator = repeats.get(i).entrySet().iterator();
+
+            while (iterator.hasNext()) {
+                final Map.Entry<String, Repeat> entry = iterator.next();
+
+                if (all || now - entry.getValue().start >= window) {
+                    iterator.remove();
+                    final long count = entry.getValue().count.get();
+
+                    if (count > 0) {
+                        repeated.accept(levels[i], summary(entry.getKey(), count));
+                    }
+                }
+            }
+        }
+
+        return limited.getAndSet(0L);
+    }
+
+    String summary(String format, long count) {
+        return "Suppressed " + count + " repeats of \"" + format + "\" within " + (window / 1000000000L) + "s";
+    }
+
+    String rateSummary(long count) {
+        return "Rate limited " + count + " records, the limit is " + rate + " per second";
+    }
+
+    private static final class Repeat {
+
+        final long start;
+        final AtomicLong count = new AtomicLong();
+
+        Repeat(long start) {
+            this.start = start;
+        }
+
+    }
+
+}
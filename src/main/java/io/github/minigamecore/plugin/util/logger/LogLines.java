@@ -0,0 +1,65 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.util.logger;
+
+import io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.Level;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The text layout of a MinigameCore log line.
+ *
+ * <p>
+ *     Shared by {@link TextLogWriter} and {@link LogDecoder}, so has no
+ *     dependencies outside of the JDK.
+ * </p>
+ */
+final class LogLines {
+
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private LogLines() {
+    }
+
+    /**
+     * Formats an epoch nanosecond timestamp as {@code HH:mm:ss}.
+     */
+    static String formatTime(long time) {
+        return LocalTime.from(Instant.ofEpochMilli(time / 1000000L).atZone(ZoneId.systemDefault())).format(formatter);
+    }
+
+    /**
+     * Appends {@code [HH:mm:ss] [LEVEL] [name]: message}, without a line
+     * separator.
+     */
+    static StringBuilder formatLine(StringBuilder line, String time, Level level, String name, String message) {
+        return line.append('[').append(time).append("] [").append(level).append("] [").append(name).append("]: ").append(message);
+    }
+
+}
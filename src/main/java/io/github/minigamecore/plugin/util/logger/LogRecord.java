@@ -0,0 +1,138 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.util.logger;
+
+import io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.Level;
+import org.slf4j.Marker;
+import org.slf4j.helpers.FormattingTuple;
+import org.slf4j.helpers.MessageFormatter;
+
+import javax.annotation.Nullable;
+
+/**
+ * A preallocated slot of the {@link LogRingBuffer}.
+ *
+ * <p>
+ *     Slots are reused for the lifetime of the buffer, a producer fills one
+ *     in after claiming it and the flusher clears it after draining it. The
+ *     message is kept as the SLF4J format and its arguments, and is only
+ *     rendered by the flusher.
+ * </p>
+ *
+ * <p>
+ *     The route says where the record goes once drained, the log file, the
+ *     console of the wrapped logger or both.
+ * </p>
+ */
+final class LogRecord {
+
+    static final int VARARGS = -1;
+    static final int SAVE = 1;
+    static final int CONSOLE = 2;
+
+    long sequence; // Of the ring buffer.
+    long time; // Epoch nanoseconds.
+    Level level;
+    MinigameCoreLogger logger;
+    @Nullable Marker marker;
+    int route;
+    String format;
+    int arity;
+    @Nullable Object arg1;
+    @Nullable Object arg2;
+    @Nullable Object[] arguments;
+    @Nullable Throwable throwable;
+    int weight; // Estimated bytes held, see LogBuffer#weigh.
+
+    void set(long time, Level level, MinigameCoreLogger logger, @Nullable Marker marker, int route, String format, int arity,
+            @Nullable Object arg1, @Nullable Object arg2, @Nullable Object[] arguments, @Nullable Throwable throwable) {
+        this.time = time;
+        this.level = level;
+        this.logger = logger;
+        this.marker = marker;
+        this.route = route;
+        this.format = format;
+        this.arity = arity;
+        this.arg1 = arg1;
+        this.arg2 = arg2;
+        this.arguments = arguments;
+        this.throwable = throwable;
+    }
+
+    boolean isSaved() {
+        return (route & SAVE) != 0;
+    }
+
+    boolean isConsole() {
+        return (route & CONSOLE) != 0;
+    }
+
+    /**
+     * Renders the message with SLF4J style {@code {}} substitution.
+     */
+    FormattingTuple render() {
+        switch (arity) {
+            case 0:
+                return new FormattingTuple(format, null, throwable);
+            case 1:
+                return MessageFormatter.format(format, arg1);
+            case 2:
+                return MessageFormatter.format(format, arg1, arg2);
+            default:
+                return MessageFormatter.arrayFormat(format, arguments);
+        }
+    }
+
+    int argumentCount() {
+        if (arity == VARARGS) {
+            return (arguments == null) ? 0 : arguments.length;
+        }
+
+        return arity;
+    }
+
+    @Nullable
+    Object argument(int index) {
+        if (arity == VARARGS) {
+            //noinspection ConstantConditions
+            return arguments[index];
+        }
+
+        return (index == 0) ? arg1 : arg2;
+    }
+
+    void clear() {
+        level = null;
+        logger = null;
+        marker = null;
+        format = null;
+        arg1 = null;
+        arg2 = null;
+        arguments = null;
+        throwable = null;
+    }
+
+}
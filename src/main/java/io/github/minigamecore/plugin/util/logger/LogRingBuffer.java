@@ -0,0 +1,182 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.util.logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A bounded, lock-free multi-producer/single-consumer ring buffer of
+ * preallocated {@link LogRecord} slots.
+ *
+ * <p>
+ *     Every slot carries a sequence number. A slot is free for the producer
+ *     claiming position {@code p} once its sequence equals {@code p}, and
+ *     readable by the consumer once its sequence equals {@code p + 1}.
+ *     Producers never block, a full buffer makes {@link #claim()} fail.
+ * </p>
+ */
+final class LogRingBuffer {
+
+    private final LogRecord[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final ReentrantLock consumerLock = new ReentrantLock();
+    private volatile long head;
+
+    LogRingBuffer(int capacity) {
+        checkArgument(capacity > 0, "capacity must be positive");
+
+        int size = Integer.highestOneBit(capacity);
+        size = (size < capacity) ? size << 1 : size;
+
+        slots = new LogRecord[size];
+        sequences = new AtomicLongArray(size);
+        mask = size - 1;
+
+        for (int i = 0; i < size; i++) {
+            slots[i] = new LogRecord();
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Claims the next free slot.
+     *
+     * @return The claimed sequence, or {@code -1} if the buffer is full
+     */
+    long claim() {
+        while (true) {
+            long position = tail.get();
+            long difference = sequences.get((int) position & mask) - position;
+
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+            } else if (difference < 0) {
+                return -1;
+            }
+        }
+    }
+
+    LogRecord slot(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+
+    /**
+     * Hands a claimed and filled slot over to the consumer.
+     */
+    void publish(long sequence) {
+        sequences.lazySet((int) sequence & mask, sequence + 1);
+    }
+
+    /**
+     * Drains up to {@code limit} published records, oldest first.
+     *
+     * <p>Only one thread drains at a time.</p>
+     *
+     * @return The number of records drained
+     */
+    int drain(Consumer<LogRecord> consumer, int limit) {
+        consumerLock.lock();
+
+        try {
+            int count = 0;
+
+            while (count < limit && poll(consumer)) {
+                count++;
+            }
+
+            return count;
+        } finally {
+            consumerLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the oldest record to make room, unless the consumer is busy
+     * draining, which makes room anyway.
+     *
+     * @param evictable Whether the oldest record may be removed
+     * @param dropped Receives the removed record
+     * @return If a record was removed
+     */
+    boolean dropOldest(Predicate<LogRecord> evictable, Consumer<LogRecord> dropped) {
+        // The consumer itself logging must not poll the record it is draining.
+        if (consumerLock.isHeldByCurrentThread() || !consumerLock.tryLock()) {
+            return false;
+        }
+
+        try {
+            final int index = (int) head & mask;
+            return sequences.get(index) == head + 1 && evictable.test(slots[index]) && poll(dropped);
+        } finally {
+            consumerLock.unlock();
+        }
+    }
+
+    // Callers hold the consumer lock.
+    private boolean poll(Consumer<LogRecord> consumer) {
+        final long position = head;
+        final int index = (int) position & mask;
+
+        if (sequences.get(index) != position + 1) {
+            return false;
+        }
+
+        LogRecord record = slots[index];
+
+        try {
+            consumer.accept(record);
+        } finally {
+            record.clear();
+            sequences.lazySet(index, position + slots.length);
+            head = position + 1;
+        }
+
+        return true;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Gets the number of claimed slots, an estimate while producers are
+     * active.
+     */
+    int size() {
+        return (int) Math.max(0L, tail.get() - head);
+    }
+
+}
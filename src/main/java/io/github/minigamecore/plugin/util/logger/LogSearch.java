@@ -0,0 +1,437 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.util.logger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+
+import io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.Level;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.zip.GZIPInputStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * Searches the log segments of MinigameCore.
+ *
+ * <p>
+ *     Text segments are read through a memory mapping, compressed ones are
+ *     decompressed as they are read and binary ones go through
+ *     {@link LogDecoder}. Segments are searched newest first, so a search
+ *     that reaches its limit does not read the older ones at all.
+ * </p>
+ *
+ * <p>
+ *     The methods block while reading, they should not be called from the
+ *     main thread.
+ * </p>
+ */
+public final class LogSearch {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long WINDOW = 64L * 1024L * 1024L;
+    private static final int DAY = 24 * 60 * 60;
+
+    private LogSearch() {
+    }
+
+    /**
+     * Gets the last lines of the active log segment, the buffered records
+     * are flushed first.
+     *
+     * @param lines The number of lines
+     * @return The lines, oldest first
+     */
+    public static List<String> tail(int lines) throws IOException {
+        flush();
+        final Path segment = MinigameCoreLoggerUtil.getActiveSegment();
+
+        if (segment == null) {
+            return Collections.emptyList();
+        }
+
+        final Deque<String> tail = new ArrayDeque<>(lines);
+        read(segment, line -> {
+            if (tail.size() == lines) {
+                tail.removeFirst();
+            }
+
+            tail.addLast(line);
+        });
+        return new ArrayList<>(tail);
+    }
+
+    /**
+     * Searches every log segment, the buffered records are flushed first.
+     *
+     * <p>
+     *     A record matches if it was logged within the time range, at or
+     *     above the level, by a logger whose name contains {@code logger}
+     *     and its line contains {@code text}. The continuation lines of a
+     *     record, like stacktraces, are included with it.
+     * </p>
+     *
+     * @param from The earliest time, inclusive
+     * @param to The latest time, inclusive
+     * @param level The lowest level
+     * @param logger A part of the logger name
+     * @param text A part of the line
+     * @param limit The most lines to return, the newest are kept
+     * @return The result
+     */
+    public static Result search(@Nullable LocalDateTime from, @Nullable LocalDateTime to, @Nullable Level level, @Nullable String logger,
+            @Nullable String text, int limit) throws IOException {
+        flush();
+        final Path directory = MinigameCoreLoggerUtil.getLogDirectory();
+
+        if (directory == null) {
+            return new Result(Collections.emptyList(), 0, false);
+        }
+
+        final Filter filter = new Filter(from, to, level, logger, text);
+        final List<Segment> segments = list(directory);
+        final List<String> lines = new ArrayList<>();
+        boolean truncated = false;
+        int searched = 0;
+        int i = segments.size() - 1;
+
+        for (; i >= 0 && lines.size() < limit; i--) {
+            final Segment segment = segments.get(i);
+
+            // A segment only holds records of its date, and of the next one when it was not rolled at midnight.
+            if (to != null && segment.date.isAfter(to.toLocalDate())) {
+                continue;
+            }
+
+            if (from != null && segment.date.isBefore(from.toLocalDate().minusDays(1L))) {
+                break;
+            }
+
+            final int remaining = limit - lines.size();
+            final Deque<String> matches = new ArrayDeque<>();
+            final boolean[] dropped = new boolean[1];
+
+            filter.start(segment.date);
+            read(segment.path, line -> {
+                if (filter.test(line)) {
+                    if (matches.size() == remaining) {
+                        matches.removeFirst();
+                        dropped[0] = true;
+                    }
+
+                    matches.addLast(line);
+                }
+            });
+
+            lines.addAll(0, matches);
+            truncated |= dropped[0];
+            searched++;
+        }
+
+        // Older segments were left unread once the limit was reached.
+        return new Result(lines, searched, truncated || (i >= 0 && lines.size() >= limit));
+    }
+
+    private static void flush() {
+        final org.slf4j.Logger logger = MinigameCoreLoggerUtil.getPluginLogger();
+
+        if (logger != null) {
+            MinigameCoreLoggerUtil.flush(logger);
+        }
+    }
+
+    // Oldest first, a segment that is also compressed is being compressed, the uncompressed one is complete.
+    private static List<Segment> list(Path directory) throws IOException {
+        final List<Matcher> matchers = new ArrayList<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                final Matcher matcher = LogDirectory.SEGMENT.matcher(file.getFileName().toString());
+
+                if (matcher.matches()) {
+                    matchers.add(matcher);
+                }
+            }
+        }
+
+        matchers.sort(LogDirectory.ORDER);
+        final Map<String, Segment> segments = new LinkedHashMap<>();
+
+        for (Matcher matcher : matchers) {
+            final boolean compressed = matcher.group(3) != null;
+            final String name = compressed ? matcher.group().substring(0, matcher.group().length() - 3) : matcher.group();
+            final Segment segment = new Segment(directory.resolve(matcher.group()), LocalDate.parse(matcher.group(1)));
+
+            if (!compressed || !segments.containsKey(name)) {
+                segments.put(name, segment);
+            }
+        }
+
+        return new ArrayList<>(segments.values());
+    }
+
+    private static void read(Path segment, Consumer<String> lines) throws IOException {
+        final String name = segment.getFileName().toString();
+
+        try {
+            if (name.endsWith(".bin") || name.endsWith(".bin.gz")) {
+                LogDecoder.decode(segment, lines);
+            } else if (name.endsWith(".gz")) {
+                readCompressed(segment, lines);
+            } else {
+                readMapped(segment, lines);
+            }
+        } catch (NoSuchFileException | EOFException ignored) {
+            // Compressed or pruned in the meantime, or still being written.
+        }
+    }
+
+    private static void readCompressed(Path segment, Consumer<String> lines) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(segment), BUFFER_SIZE),
+                UTF_8), BUFFER_SIZE)) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lines.accept(line);
+            }
+        }
+    }
+
+    // Maps the segment a window at a time, a window always ends at a line end.
+    private static void readMapped(Path segment, Consumer<String> lines) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, READ)) {
+            final long size = channel.size();
+            long start = 0L;
+            byte[] bytes = new byte[256];
+
+            while (start < size) {
+                final MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW, size - start));
+                final int limit = map.limit();
+                int lineStart = 0;
+
+                for (int i = 0; i < limit; i++) {
+                    if (map.get(i) == '\n') {
+                        bytes = accept(map, lineStart, i, bytes, lines);
+                        lineStart = i + 1;
+                    }
+                }
+
+                // The last line of the file, or a line longer than a window.
+                if (start + limit == size || lineStart == 0) {
+                    bytes = accept(map, lineStart, limit, bytes, lines);
+                    lineStart = limit;
+                }
+
+                start += lineStart;
+            }
+        }
+    }
+
+    private static byte[] accept(ByteBuffer map, int start, int end, byte[] bytes, Consumer<String> lines) {
+        final int length = end - start;
+
+        if (length == 0) {
+            return bytes;
+        }
+
+        final byte[] line = (bytes.length < length) ? new byte[Math.max(length, bytes.length * 2)] : bytes;
+        ((ByteBuffer) map.duplicate().position(start)).get(line, 0, length);
+        lines.accept(new String(line, 0, length, UTF_8));
+        return line;
+    }
+
+    /**
+     * The lines found by {@link #search}.
+     */
+    public static final class Result {
+
+        private final List<String> lines;
+        private final int segments;
+        private final boolean truncated;
+
+        Result(List<String> lines, int segments, boolean truncated) {
+            this.lines = lines;
+            this.segments = segments;
+            this.truncated = truncated;
+        }
+
+        /**
+         * Gets the matching lines, oldest first.
+         */
+        public List<String> getLines() {
+            return lines;
+        }
+
+        /**
+         * Gets the number of segments that were read.
+         */
+        public int getSegments() {
+            return segments;
+        }
+
+        /**
+         * Gets if there were more matching lines than the limit.
+         */
+        public boolean isTruncated() {
+            return truncated;
+        }
+
+    }
+
+    private static final class Segment {
+
+        final Path path;
+        final LocalDate date;
+
+        Segment(Path path, LocalDate date) {
+            this.path = path;
+            this.date = date;
+        }
+
+    }
+
+    // Matches records line by line, continuation lines follow the record they belong to.
+    private static final class Filter {
+
+        @Nullable private final LocalDateTime from;
+        @Nullable private final LocalDateTime to;
+        @Nullable private final Level level;
+        @Nullable private final String logger;
+        @Nullable private final String text;
+        private long day;
+        private int previous;
+        private boolean matching;
+
+        Filter(@Nullable LocalDateTime from, @Nullable LocalDateTime to, @Nullable Level level, @Nullable String logger,
+                @Nullable String text) {
+            this.from = from;
+            this.to = to;
+            this.level = level;
+            this.logger = logger;
+            this.text = text;
+        }
+
+        void start(LocalDate date) {
+            day = date.toEpochDay();
+            previous = 0;
+            matching = false;
+        }
+
+        // [HH:mm:ss] [LEVEL] [name]: message
+        boolean test(String line) {
+            if (line.length() < 12 || line.charAt(0) != '[' || line.charAt(9) != ']') {
+                return matching;
+            }
+
+            final int levelEnd = line.indexOf("] [", 12);
+            final int nameEnd = (levelEnd == -1) ? -1 : line.indexOf("]: ", levelEnd);
+
+            if (nameEnd == -1) {
+                return matching;
+            }
+
+            final int seconds = seconds(line);
+
+            if (seconds < 0) {
+                return matching;
+            }
+
+            // The clock went back by more than half a day, the segment went past midnight.
+            if (seconds < previous - DAY / 2) {
+                day++;
+            }
+
+            previous = seconds;
+            matching = matches(line, day * DAY + seconds, levelEnd, nameEnd);
+            return matching;
+        }
+
+        private boolean matches(String line, long time, int levelEnd, int nameEnd) {
+            if ((from != null && time < from.toEpochSecond(ZoneOffset.UTC)) || (to != null && time > to.toEpochSecond(ZoneOffset.UTC))) {
+                return false;
+            }
+
+            if (level != null) {
+                final Level found = parse(line.substring(12, levelEnd));
+
+                if (found == null || found.compareTo(level) < 0) {
+                    return false;
+                }
+            }
+
+            return (logger == null || line.substring(levelEnd + 3, nameEnd).contains(logger)) && (text == null || line.contains(text));
+        }
+
+        @Nullable
+        private static Level parse(String level) {
+            for (Level constant : Level.values()) {
+                if (constant.name().equals(level)) {
+                    return constant;
+                }
+            }
+
+            return null;
+        }
+
+        private static int seconds(String line) {
+            final int hours = number(line, 1);
+            final int minutes = number(line, 4);
+            final int seconds = number(line, 7);
+            return (hours < 0 || minutes < 0 || seconds < 0) ? -1 : hours * 3600 + minutes * 60 + seconds;
+        }
+
+        private static int number(String line, int index) {
+            final char tens = line.charAt(index);
+            final char ones = line.charAt(index + 1);
+            return (tens < '0' || tens > '9' || ones < '0' || ones > '9') ? -1 : (tens - '0') * 10 + (ones - '0');
+        }
+
+    }
+
+}
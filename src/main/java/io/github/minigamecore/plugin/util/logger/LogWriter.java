@@ -0,0 +1,220 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.util.logger;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import io.github.minigamecore.plugin.util.logger.LoggingSettings.FsyncPolicy;
+import io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.Level;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import javax.annotation.Nullable;
+
+/**
+ * Appends log records to a log segment that is kept open.
+ *
+ * <p>
+ *     Records are encoded into a set of reusable direct buffers, which are
+ *     written to the file with a single gathering write once they are full
+ *     or when {@link #flush()} is called.
+ * </p>
+ */
+abstract class LogWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int BUFFER_COUNT = 4;
+
+    private final Path path;
+    private final long opened = System.currentTimeMillis();
+    private final FileChannel channel;
+    private final FsyncPolicy fsync;
+    private final ByteBuffer[] buffers = new ByteBuffer[BUFFER_COUNT];
+    private int current;
+    private long written;
+    @Nullable private LogJournal journal;
+    // The sequence of the last record appended and the size of the file after it.
+    private long marked = -1L;
+    private long markedSize;
+
+    LogWriter(Path path, FsyncPolicy fsync) throws IOException {
+        this.path = path;
+        this.fsync = fsync;
+        channel = FileChannel.open(path, CREATE, WRITE, APPEND);
+        written = channel.size();
+
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            buffers[i] = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * Appends a drained record.
+     */
+    abstract void append(LogRecord record) throws IOException;
+
+    /**
+     * Appends a line that did not go through the ring buffer.
+     */
+    abstract void append(long time, Level level, String name, String message) throws IOException;
+
+    /**
+     * Checkpoints the last {@link #mark(long) marked} record every time the
+     * buffers are written, so the checkpoint always names the last record in
+     * the file and a crash can only cut off what is still buffered.
+     */
+    void setJournal(@Nullable LogJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Marks that every record up to {@code sequence} was appended.
+     */
+    void mark(long sequence) {
+        marked = sequence;
+        markedSize = size();
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getOpened() {
+        return opened;
+    }
+
+    /**
+     * Gets the size of the file, including what has not been written yet.
+     */
+    long size() {
+        long size = written;
+
+        for (int i = 0; i <= current; i++) {
+            size += buffers[i].position();
+        }
+
+        return size;
+    }
+
+    /**
+     * Writes everything appended so far to the file.
+     */
+    void flush() throws IOException {
+        writeAll();
+
+        if (fsync != FsyncPolicy.NEVER) {
+            channel.force(fsync == FsyncPolicy.FULL);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    ByteBuffer buffer() {
+        return buffers[current];
+    }
+
+    /**
+     * Moves on to the next buffer, writing them all out once every buffer is
+     * full.
+     */
+    void advance() throws IOException {
+        if (current == BUFFER_COUNT - 1) {
+            writeAll();
+        } else {
+            current++;
+        }
+    }
+
+    /**
+     * Gets a buffer with at least {@code bytes} remaining.
+     */
+    ByteBuffer ensure(int bytes) throws IOException {
+        if (buffers[current].remaining() < bytes) {
+            advance();
+        }
+
+        return buffers[current];
+    }
+
+    void put(byte[] bytes) throws IOException {
+        int offset = 0;
+
+        while (offset < bytes.length) {
+            ByteBuffer buffer = buffers[current];
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+
+            if (length == 0) {
+                advance();
+                continue;
+            }
+
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private void writeAll() throws IOException {
+        long remaining = 0;
+
+        for (int i = 0; i <= current; i++) {
+            buffers[i].flip();
+            remaining += buffers[i].remaining();
+        }
+
+        try {
+            // Taken before the write, recovery only trusts it once the file got this large.
+            if (journal != null && marked >= 0) {
+                journal.checkpoint(marked, path, markedSize);
+            }
+
+            while (remaining > 0) {
+                long count = channel.write(buffers, 0, current + 1);
+                written += count;
+                remaining -= count;
+            }
+        } finally {
+            for (int i = 0; i <= current; i++) {
+                buffers[i].clear();
+            }
+
+            current = 0;
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.util.logger;
+
+import com.google.common.collect.ImmutableMap;
+import ninja.leaping.configurate.ConfigurationNode;
+
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+/**
+ * A per-logger setting of {@code global.conf}, such as
+ * {@code logging.levels}.
+ *
+ * <p>
+ *     Maps logger names, the suffix passed to {@link MinigameCoreLogger}, to
+ *     a value. A name without an entry uses the entry of its closest dotted
+ *     parent, or the root value.
+ * </p>
+ *
+ * @param <V> The value type
+ */
+final class LoggerTable<V> {
+
+    private final V root;
+    private final ImmutableMap<String, V> values;
+
+    private LoggerTable(V root, ImmutableMap<String, V> values) {
+        this.root = root;
+        this.values = values;
+    }
+
+    static <V> LoggerTable<V> compile(V root, ConfigurationNode node, Function<ConfigurationNode, V> parser) {
+        final ImmutableMap.Builder<String, V> values = ImmutableMap.builder();
+        collect(node, "", parser, values);
+        return new LoggerTable<>(root, values.build());
+    }
+
+    // HOCON turns dotted keys into nested nodes, they are joined back together.
+    private static <V> void collect(ConfigurationNode node, String prefix, Function<ConfigurationNode, V> parser,
+            ImmutableMap.Builder<String, V> values) {
+        for (Map.Entry<Object, ? extends ConfigurationNode> child : node.getChildrenMap().entrySet()) {
+            final String name = prefix + child.getKey();
+
+            if (child.getValue().hasMapChildren()) {
+                collect(child.getValue(), name + ".", parser, values);
+            } else {
+                values.put(name, parser.apply(child.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Gets the value for a logger.
+     *
+     * @param name The logger name, {@code null} for the root logger
+     */
+    V resolve(@Nullable String name) {
+        while (name != null) {
+            final V value = values.get(name);
+
+            if (value != null) {
+                return value;
+            }
+
+            final int index = name.lastIndexOf('.');
+            name = (index == -1) ? null : name.substring(0, index);
+        }
+
+        return root;
+    }
+
+}
@@ -0,0 +1,180 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.util.logger;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.Level;
+import ninja.leaping.configurate.ConfigurationNode;
+import ninja.leaping.configurate.SimpleConfigurationNode;
+
+import javax.annotation.Nullable;
+
+/**
+ * An immutable view of the {@code logging} node of {@code global.conf}.
+ */
+final class LoggingSettings {
+
+    private static final long MEGABYTE = 1024L * 1024L;
+    private static final long MINUTE = 60L * 1000L;
+    private static final long DAY = 24L * 60L * MINUTE;
+
+    static final LoggingSettings DEFAULT = new LoggingSettings(SimpleConfigurationNode.root());
+
+    final boolean debug;
+    final long flush;
+    final Level level;
+    final LoggerTable<Level> levels;
+    final long repeatWindow;
+    final LoggerTable<Integer> rateLimits;
+    final int bufferSize;
+    final long bufferMemory;
+    final OverflowPolicy overflow;
+    final ConsoleMode console;
+    final FsyncPolicy fsync;
+    final long rollSize;
+    final long rollInterval;
+    final int compressionLevel;
+    final SegmentFormat format;
+    final long retentionAge;
+    final long retentionSize;
+    final boolean journal;
+    final int journalSize;
+
+    private LoggingSettings(ConfigurationNode node) {
+        debug = node.getNode("debug").getBoolean(false);
+        flush = node.getNode("flush").getLong(15L);
+        level = parse(Level.class, node.getNode("level").getString(), Level.DEBUG);
+        levels = LoggerTable.compile(level, node.getNode("levels"), child -> parse(Level.class, child.getString(), Level.DEBUG));
+        repeatWindow = SECONDS.toNanos(Math.max(0L, node.getNode("repeat-window").getLong(10L)));
+        rateLimits = LoggerTable.compile(0, node.getNode("rate-limits"), child -> Math.max(0, child.getInt(0)));
+        bufferSize = Math.min(1 << 20, Math.max(16, node.getNode("buffer-size").getInt(8192)));
+        bufferMemory = Math.max(1L, node.getNode("buffer-memory").getLong(16L)) * MEGABYTE;
+        overflow = parse(OverflowPolicy.class, node.getNode("overflow").getString(), OverflowPolicy.DROP_OLDEST);
+        console = parse(ConsoleMode.class, node.getNode("console").getString(), ConsoleMode.SYNC);
+        fsync = parse(FsyncPolicy.class, node.getNode("fsync").getString(), FsyncPolicy.NEVER);
+        rollSize = Math.max(1L, node.getNode("roll-size").getLong(64L)) * MEGABYTE;
+        rollInterval = Math.max(1L, node.getNode("roll-interval").getLong(1440L)) * MINUTE;
+        compressionLevel = Math.min(9, Math.max(1, node.getNode("compression-level").getInt(6)));
+        format = parse(SegmentFormat.class, node.getNode("format").getString(), SegmentFormat.TEXT);
+        retentionAge = Math.max(0L, node.getNode("retention-days").getLong(30L)) * DAY;
+        retentionSize = Math.max(0L, node.getNode("retention-size").getLong(1024L)) * MEGABYTE;
+        journal = node.getNode("journal").getBoolean(false);
+        journalSize = (int) (Math.min(1024L, Math.max(1L, node.getNode("journal-size").getLong(4L))) * MEGABYTE);
+    }
+
+    static LoggingSettings from(ConfigurationNode node) {
+        return new LoggingSettings(node);
+    }
+
+    // Matches the constant names case insensitively, with - in place of _.
+    static <E extends Enum<E>> E parse(Class<E> type, @Nullable String name, E def) {
+        if (name != null) {
+            for (E constant : type.getEnumConstants()) {
+                if (constant.name().replace('_', '-').equalsIgnoreCase(name.trim())) {
+                    return constant;
+                }
+            }
+        }
+
+        return def;
+    }
+
+    /**
+     * What happens to a record logged while the buffer is full.
+     */
+    enum OverflowPolicy {
+        /**
+         * Wait for the flusher to make room, for up to a second.
+         */
+        BLOCK,
+        /**
+         * Drop the oldest buffered record.
+         */
+        DROP_OLDEST,
+        /**
+         * Stop buffering TRACE and DEBUG records once the buffer is three
+         * quarters full, and drop the oldest record below WARN when it is
+         * full.
+         */
+        DROP_DEBUG_FIRST
+    }
+
+    /**
+     * How records reach the console of the wrapped logger.
+     */
+    enum ConsoleMode {
+        /**
+         * On the thread that logged them.
+         */
+        SYNC,
+        /**
+         * Through the log buffer, forwarded by a background task in the order
+         * they were logged. ERROR records are still forwarded before the
+         * logging call returns.
+         */
+        ASYNC
+    }
+
+    /**
+     * When the log file is forced to the storage device.
+     */
+    enum FsyncPolicy {
+        /**
+         * Leave it to the operating system.
+         */
+        NEVER,
+        /**
+         * Force the file contents after every flush.
+         */
+        DATA,
+        /**
+         * Force the file contents and metadata after every flush.
+         */
+        FULL
+    }
+
+    /**
+     * How log segments are written.
+     */
+    enum SegmentFormat {
+        /**
+         * Plain text lines, see {@link TextLogWriter}.
+         */
+        TEXT(".log"),
+        /**
+         * The binary format, see {@link BinaryLogWriter}.
+         */
+        BINARY(".bin");
+
+        final String extension;
+
+        SegmentFormat(String extension) {
+            this.extension = extension;
+        }
+    }
+
+}
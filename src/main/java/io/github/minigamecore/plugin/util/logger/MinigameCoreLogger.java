@@ -25,20 +25,20 @@
 
 package io.github.minigamecore.plugin.util.logger;
 
-import static io.github.minigamecore.plugin.config.Configurations.get;
 import static io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.Level.DEBUG;
 import static io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.Level.ERROR;
 import static io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.Level.INFO;
 import static io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.Level.TRACE;
 import static io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.Level.WARN;
+import static io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.addFormattedToBuffer;
 import static io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.addToBuffer;
-import static java.lang.String.format;
-import static java.time.LocalTime.now;
+import static io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.isDebug;
+import static io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.register;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import com.google.common.base.Objects;
 import com.google.inject.Singleton;
-import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+import io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.Level;
 import org.slf4j.Logger;
 import org.slf4j.Marker;
 
@@ -50,9 +50,12 @@
 @Singleton
 public class MinigameCoreLogger implements Logger {
 
-    @SuppressWarnings("OptionalGetWithoutIsPresent")
-    private final CommentedConfigurationNode globalConfig = get("global").get().get();
     private final Logger logger;
+    @Nullable final String suffix;
+    final boolean limited;
+    // The lowest level saved to the log file, kept up to date by MinigameCoreLoggerUtil.
+    volatile Level threshold = Level.OFF;
+    volatile LogLimiter limiter = new LogLimiter(0L, 0);
 
     @SuppressWarnings("ConstantConditions")
     public MinigameCoreLogger() {
@@ -64,8 +67,22 @@ public MinigameCoreLogger(@Nullable Class suffix) {
     }
 
     public MinigameCoreLogger(@Nullable String suffix) {
+        this(suffix, true);
+    }
+
+    /**
+     * Creates a logger.
+     *
+     * @param suffix The suffix of the logger name
+     * @param limited Whether repeated records are suppressed and the rate
+     *     limit applies, loggers of measurements are not limited
+     */
+    public MinigameCoreLogger(@Nullable String suffix, boolean limited) {
         final String prefix = "minigamecore";
         logger = getLogger((suffix == null) ? prefix : prefix + "|" + suffix);
+        this.suffix = suffix;
+        this.limited = limited;
+        register(this);
     }
 
     @Override
@@ -75,381 +92,425 @@ public String getName() {
 
     @Override
     public boolean isTraceEnabled() {
-        return logger.isTraceEnabled();
+        return isSaved(TRACE) || logger.isTraceEnabled();
     }
 
     @Override
     public boolean isTraceEnabled(Marker marker) {
-        return logger.isTraceEnabled();
+        return isSaved(TRACE) || logger.isTraceEnabled(marker);
     }
 
     @Override
     public void trace(String msg) {
-        addToBuffer(now(), TRACE, this, msg);
-        logger.trace(msg);
+        if (!addToBuffer(TRACE, this, null, msg)) {
+            logger.trace(msg);
+        }
     }
 
     @Override
     public void trace(Marker marker, String msg) {
-        addToBuffer(now(), TRACE, this, msg);
-        logger.trace(marker, msg);
+        if (!addToBuffer(TRACE, this, marker, msg)) {
+            logger.trace(marker, msg);
+        }
     }
 
     @Override
     public void trace(String format, Object arg) {
-        addToBuffer(now(), TRACE, this, format(format, arg));
-        logger.trace(format, arg);
+        if (!addFormattedToBuffer(TRACE, this, null, format, arg)) {
+            logger.trace(format, arg);
+        }
     }
 
     @Override
     public void trace(String format, Object arg1, Object arg2) {
-        addToBuffer(now(), TRACE, this, format(format, arg1, arg2));
-        logger.trace(format, arg1, arg2);
+        if (!addFormattedToBuffer(TRACE, this, null, format, arg1, arg2)) {
+            logger.trace(format, arg1, arg2);
+        }
     }
 
     @Override
     public void trace(String format, Object[] arguments) {
-        addToBuffer(now(), TRACE, this, format(format, arguments));
-        logger.trace(format, arguments);
+        if (!addFormattedToBuffer(TRACE, this, null, format, arguments)) {
+            logger.trace(format, arguments);
+        }
     }
 
     @Override
     public void trace(String msg, Throwable throwable) {
-        addToBuffer(now(), TRACE, this, msg, throwable);
-        logger.trace(msg, throwable);
+        if (!addToBuffer(TRACE, this, null, msg, throwable)) {
+            logger.trace(msg, throwable);
+        }
     }
 
     @Override
     public void trace(Marker marker, String format, Object arg) {
-        addToBuffer(now(), TRACE, this, format(format, arg));
-        logger.trace(marker, format, arg);
+        if (!addFormattedToBuffer(TRACE, this, marker, format, arg)) {
+            logger.trace(marker, format, arg);
+        }
     }
 
     @Override
     public void trace(Marker marker, String format, Object arg1, Object arg2) {
-        addToBuffer(now(), TRACE, this, format(format, arg1, arg2));
-        logger.trace(marker, format, arg1, arg2);
+        if (!addFormattedToBuffer(TRACE, this, marker, format, arg1, arg2)) {
+            logger.trace(marker, format, arg1, arg2);
+        }
     }
 
     @Override
     public void trace(Marker marker, String format, Object[] arguments) {
-        addToBuffer(now(), TRACE, this, format(format, arguments));
-        logger.trace(marker, format, arguments);
+        if (!addFormattedToBuffer(TRACE, this, marker, format, arguments)) {
+            logger.trace(marker, format, arguments);
+        }
     }
 
     @Override
     public void trace(Marker marker, String msg, Throwable throwable) {
-        addToBuffer(now(), TRACE, this, msg, throwable);
-        logger.trace(marker, msg, throwable);
+        if (!addToBuffer(TRACE, this, marker, msg, throwable)) {
+            logger.trace(marker, msg, throwable);
+        }
     }
 
     @Override
     public boolean isDebugEnabled() {
-        return logger.isDebugEnabled();
+        return isSaved(DEBUG) || logger.isDebugEnabled();
     }
 
     @Override
     public boolean isDebugEnabled(Marker marker) {
-        return logger.isDebugEnabled(marker);
+        return isSaved(DEBUG) || logger.isDebugEnabled(marker);
     }
 
     @Override
     public void debug(String msg) {
-        addToBuffer(now(), DEBUG, this, msg);
-        logger.debug(msg);
+        if (!addToBuffer(DEBUG, this, null, msg)) {
+            logger.debug(msg);
+        }
     }
 
     @Override
     public void debug(String format, Object arg) {
-        addToBuffer(now(), DEBUG, this, format(format, arg));
-        logger.debug(format, arg);
+        if (!addFormattedToBuffer(DEBUG, this, null, format, arg)) {
+            logger.debug(format, arg);
+        }
     }
 
     @Override
     public void debug(String format, Object arg1, Object arg2) {
-        addToBuffer(now(), DEBUG, this, format(format, arg1, arg2));
-        logger.debug(format, arg1, arg2);
+        if (!addFormattedToBuffer(DEBUG, this, null, format, arg1, arg2)) {
+            logger.debug(format, arg1, arg2);
+        }
     }
 
     @Override
     public void debug(String format, Object[] arguments) {
-        addToBuffer(now(), DEBUG, this, format(format, arguments));
-        logger.debug(format, arguments);
+        if (!addFormattedToBuffer(DEBUG, this, null, format, arguments)) {
+            logger.debug(format, arguments);
+        }
     }
 
     @Override
     public void debug(String msg, Throwable throwable) {
-        addToBuffer(now(), DEBUG, this, msg, throwable);
-        logger.debug(msg, throwable);
+        if (!addToBuffer(DEBUG, this, null, msg, throwable)) {
+            logger.debug(msg, throwable);
+        }
     }
 
     @Override
     public void debug(Marker marker, String msg) {
-        addToBuffer(now(), DEBUG, this, msg);
-        logger.debug(marker, msg);
+        if (!addToBuffer(DEBUG, this, marker, msg)) {
+            logger.debug(marker, msg);
+        }
     }
 
     @Override
     public void debug(Marker marker, String format, Object arg) {
-        addToBuffer(now(), DEBUG, this, format(format, arg));
-        logger.debug(marker, format, arg);
+        if (!addFormattedToBuffer(DEBUG, this, marker, format, arg)) {
+            logger.debug(marker, format, arg);
+        }
     }
 
     @Override
     public void debug(Marker marker, String format, Object arg1, Object arg2) {
-        addToBuffer(now(), DEBUG, this, format(format, arg1, arg2));
-        logger.debug(marker, format, arg1, arg2);
+        if (!addFormattedToBuffer(DEBUG, this, marker, format, arg1, arg2)) {
+            logger.debug(marker, format, arg1, arg2);
+        }
     }
 
     @Override
     public void debug(Marker marker, String format, Object[] arguments) {
-        addToBuffer(now(), DEBUG, this, format(format, arguments));
-        logger.debug(marker, format, arguments);
+        if (!addFormattedToBuffer(DEBUG, this, marker, format, arguments)) {
+            logger.debug(marker, format, arguments);
+        }
     }
 
     @Override
     public void debug(Marker marker, String msg, Throwable throwable) {
-        addToBuffer(now(), DEBUG, this, msg, throwable);
-        logger.debug(marker, msg, throwable);
+        if (!addToBuffer(DEBUG, this, marker, msg, throwable)) {
+            logger.debug(marker, msg, throwable);
+        }
     }
 
     @Override
     public boolean isInfoEnabled() {
-        return logger.isInfoEnabled();
+        return isSaved(INFO) || logger.isInfoEnabled();
     }
 
     @Override
     public boolean isInfoEnabled(Marker marker) {
-        return logger.isInfoEnabled(marker);
+        return isSaved(INFO) || logger.isInfoEnabled(marker);
     }
 
     @Override
     public void info(String msg) {
-        addToBuffer(now(), INFO, this, msg);
-        logger.info(msg);
+        if (!addToBuffer(INFO, this, null, msg)) {
+            logger.info(msg);
+        }
     }
 
     @Override
     public void info(String format, Object arg) {
-        addToBuffer(now(), INFO, this, format(format, arg));
-        logger.info(format, arg);
+        if (!addFormattedToBuffer(INFO, this, null, format, arg)) {
+            logger.info(format, arg);
+        }
     }
 
     @Override
     public void info(String format, Object arg1, Object arg2) {
-        addToBuffer(now(), INFO, this, format(format, arg1, arg2));
-        logger.info(format, arg1, arg2);
+        if (!addFormattedToBuffer(INFO, this, null, format, arg1, arg2)) {
+            logger.info(format, arg1, arg2);
+        }
     }
 
     @Override
     public void info(String format, Object[] arguments) {
-        addToBuffer(now(), INFO, this, format(format, arguments));
-        logger.info(format, arguments);
+        if (!addFormattedToBuffer(INFO, this, null, format, arguments)) {
+            logger.info(format, arguments);
+        }
     }
 
     @Override
     public void info(String msg, Throwable throwable) {
-        addToBuffer(now(), INFO, this, msg, throwable);
-
-        if (isDebug()) {
-            logger.info(msg, throwable);
-        } else {
-            logger.info(msg);
+        if (!addToBuffer(INFO, this, null, msg, throwable)) {
+            if (isDebug()) {
+                logger.info(msg, throwable);
+            } else {
+                logger.info(msg);
+            }
         }
     }
 
     @Override
     public void info(Marker marker, String msg) {
-        addToBuffer(now(), INFO, this, msg);
-        logger.info(marker, msg);
+        if (!addToBuffer(INFO, this, marker, msg)) {
+            logger.info(marker, msg);
+        }
     }
 
     @Override
     public void info(Marker marker, String format, Object arg) {
-        addToBuffer(now(), INFO, this, format(format, arg));
-        logger.info(marker, format, arg);
+        if (!addFormattedToBuffer(INFO, this, marker, format, arg)) {
+            logger.info(marker, format, arg);
+        }
     }
 
     @Override
     public void info(Marker marker, String format, Object arg1, Object arg2) {
-        addToBuffer(now(), INFO, this, format(format, arg1, arg2));
-        logger.info(marker, format, arg1, arg2);
+        if (!addFormattedToBuffer(INFO, this, marker, format, arg1, arg2)) {
+            logger.info(marker, format, arg1, arg2);
+        }
     }
 
     @Override
     public void info(Marker marker, String format, Object[] arguments) {
-        addToBuffer(now(), INFO, this, format(format, arguments));
-        logger.info(marker, format, arguments);
+        if (!addFormattedToBuffer(INFO, this, marker, format, arguments)) {
+            logger.info(marker, format, arguments);
+        }
     }
 
     @Override
     public void info(Marker marker, String msg, Throwable throwable) {
-        addToBuffer(now(), INFO, this, msg, throwable);
-
-        if (isDebug()) {
-            logger.info(marker, msg, throwable);
-        } else {
-            logger.info(marker, msg);
+        if (!addToBuffer(INFO, this, marker, msg, throwable)) {
+            if (isDebug()) {
+                logger.info(marker, msg, throwable);
+            } else {
+                logger.info(marker, msg);
+            }
         }
     }
 
     @Override
     public boolean isWarnEnabled() {
-        return logger.isWarnEnabled();
+        return isSaved(WARN) || logger.isWarnEnabled();
     }
 
     @Override
     public boolean isWarnEnabled(Marker marker) {
-        return logger.isWarnEnabled(marker);
+        return isSaved(WARN) || logger.isWarnEnabled(marker);
     }
 
     @Override
     public void warn(String msg) {
-        addToBuffer(now(), WARN, this, msg);
-        logger.warn(msg);
+        if (!addToBuffer(WARN, this, null, msg)) {
+            logger.warn(msg);
+        }
     }
 
     @Override
     public void warn(String format, Object arg) {
-        addToBuffer(now(), WARN, this, format(format, arg));
-        logger.warn(format, arg);
+        if (!addFormattedToBuffer(WARN, this, null, format, arg)) {
+            logger.warn(format, arg);
+        }
     }
 
     @Override
     public void warn(String format, Object[] arguments) {
-        addToBuffer(now(), WARN, this, format(format, arguments));
-        logger.warn(format, arguments);
+        if (!addFormattedToBuffer(WARN, this, null, format, arguments)) {
+            logger.warn(format, arguments);
+        }
     }
 
     @Override
     public void warn(String format, Object arg1, Object arg2) {
-        addToBuffer(now(), WARN, this, format(format, arg1, arg2));
-        logger.warn(format, arg1, arg2);
+        if (!addFormattedToBuffer(WARN, this, null, format, arg1, arg2)) {
+            logger.warn(format, arg1, arg2);
+        }
     }
 
     @Override
     public void warn(String msg, Throwable throwable) {
-        addToBuffer(now(), WARN, this, msg, throwable);
-
-        if (isDebug()) {
-            logger.warn(msg, throwable);
-        } else {
-            logger.warn(msg);
+        if (!addToBuffer(WARN, this, null, msg, throwable)) {
+            if (isDebug()) {
+                logger.warn(msg, throwable);
+            } else {
+                logger.warn(msg);
+            }
         }
     }
 
     @Override
     public void warn(Marker marker, String msg) {
-        addToBuffer(now(), WARN, this, msg);
-        logger.warn(marker, msg);
+        if (!addToBuffer(WARN, this, marker, msg)) {
+            logger.warn(marker, msg);
+        }
     }
 
     @Override
     public void warn(Marker marker, String format, Object arg) {
-        addToBuffer(now(), WARN, this, format(format, arg));
-        logger.warn(marker, format, arg);
+        if (!addFormattedToBuffer(WARN, this, marker, format, arg)) {
+            logger.warn(marker, format, arg);
+        }
     }
 
     @Override
     public void warn(Marker marker, String format, Object arg1, Object arg2) {
-        addToBuffer(now(), WARN, this, format(format, arg1, arg2));
-        logger.warn(marker, format, arg1, arg2);
+        if (!addFormattedToBuffer(WARN, this, marker, format, arg1, arg2)) {
+            logger.warn(marker, format, arg1, arg2);
+        }
     }
 
     @Override
     public void warn(Marker marker, String format, Object[] arguments) {
-        addToBuffer(now(), WARN, this, format(format, arguments));
-        logger.warn(marker, format, arguments);
+        if (!addFormattedToBuffer(WARN, this, marker, format, arguments)) {
+            logger.warn(marker, format, arguments);
+        }
     }
 
     @Override
     public void warn(Marker marker, String msg, Throwable throwable) {
-        addToBuffer(now(), WARN, this, msg, throwable);
-
-        if (isDebug()) {
-            logger.warn(marker, msg, throwable);
-        } else {
-            logger.warn(msg, throwable);
+        if (!addToBuffer(WARN, this, marker, msg, throwable)) {
+            if (isDebug()) {
+                logger.warn(marker, msg, throwable);
+            } else {
+                logger.warn(msg, throwable);
+            }
         }
     }
 
     @Override
     public boolean isErrorEnabled() {
-        return logger.isErrorEnabled();
+        return isSaved(ERROR) || logger.isErrorEnabled();
     }
 
     @Override
     public boolean isErrorEnabled(Marker marker) {
-        return logger.isErrorEnabled(marker);
+        return isSaved(ERROR) || logger.isErrorEnabled(marker);
     }
 
     @Override
     public void error(String msg) {
-        addToBuffer(now(), ERROR, this, msg);
-        logger.error(msg);
+        if (!addToBuffer(ERROR, this, null, msg)) {
+            logger.error(msg);
+        }
     }
 
     @Override
     public void error(String format, Object arg) {
-        addToBuffer(now(), ERROR, this, format(format, arg));
-        logger.error(format, arg);
+        if (!addFormattedToBuffer(ERROR, this, null, format, arg)) {
+            logger.error(format, arg);
+        }
     }
 
     @Override
     public void error(String format, Object arg1, Object arg2) {
-        addToBuffer(now(), ERROR, this, format(format, arg1, arg2));
-        logger.error(format, arg1, arg2);
+        if (!addFormattedToBuffer(ERROR, this, null, format, arg1, arg2)) {
+            logger.error(format, arg1, arg2);
+        }
     }
 
     @Override
     public void error(String format, Object[] arguments) {
-        addToBuffer(now(), ERROR, this, format(format, arguments));
-        logger.error(format, arguments);
+        if (!addFormattedToBuffer(ERROR, this, null, format, arguments)) {
+            logger.error(format, arguments);
+        }
     }
 
     @Override
     public void error(String msg, Throwable throwable) {
-        addToBuffer(now(), ERROR, this, msg, throwable);
-
-        if (isDebug()) {
-            logger.error(msg, throwable);
-        } else {
-            logger.error(msg);
+        if (!addToBuffer(ERROR, this, null, msg, throwable)) {
+            if (isDebug()) {
+                logger.error(msg, throwable);
+            } else {
+                logger.error(msg);
+            }
         }
     }
 
     @Override
     public void error(Marker marker, String msg) {
-        addToBuffer(now(), ERROR, this, msg);
-        logger.error(marker, msg);
+        if (!addToBuffer(ERROR, this, marker, msg)) {
+            logger.error(marker, msg);
+        }
     }
 
     @Override
     public void error(Marker marker, String format, Object arg) {
-        addToBuffer(now(), ERROR, this, format(format, arg));
-        logger.error(marker, format, arg);
+        if (!addFormattedToBuffer(ERROR, this, marker, format, arg)) {
+            logger.error(marker, format, arg);
+        }
     }
 
     @Override
     public void error(Marker marker, String format, Object arg1, Object arg2) {
-        addToBuffer(now(), ERROR, this, format(format, arg1, arg2));
-        logger.error(marker, format, arg1, arg2);
+        if (!addFormattedToBuffer(ERROR, this, marker, format, arg1, arg2)) {
+            logger.error(marker, format, arg1, arg2);
+        }
     }
 
     @Override
     public void error(Marker marker, String format, Object[] arguments) {
-        addToBuffer(now(), ERROR, this, format(format, arguments));
-        logger.error(marker, format, arguments);
+        if (!addFormattedToBuffer(ERROR, this, marker, format, arguments)) {
+            logger.error(marker, format, arguments);
+        }
     }
 
     @Override
     public void error(Marker marker, String msg, Throwable throwable) {
-        addToBuffer(now(), ERROR, this, msg, throwable);
-
-        if (isDebug()) {
-            logger.error(marker, msg, throwable);
-        } else {
-            logger.error(msg);
+        if (!addToBuffer(ERROR, this, marker, msg, throwable)) {
+            if (isDebug()) {
+                logger.error(marker, msg, throwable);
+            } else {
+                logger.error(msg);
+            }
         }
     }
 
@@ -475,8 +536,102 @@ public String toString() {
                 .toString();
     }
 
-    private boolean isDebug() {
-        return globalConfig.getNode("logging", "debug").getBoolean();
+    boolean isSaved(Level level) {
+        return level.compareTo(threshold) >= 0;
+    }
+
+    boolean isConsoleEnabled(Level level, @Nullable Marker marker) {
+        switch (level) {
+            case TRACE:
+                return (marker == null) ? logger.isTraceEnabled() : logger.isTraceEnabled(marker);
+            case DEBUG:
+                return (marker == null) ? logger.isDebugEnabled() : logger.isDebugEnabled(marker);
+            case INFO:
+                return (marker == null) ? logger.isInfoEnabled() : logger.isInfoEnabled(marker);
+            case WARN:
+                return (marker == null) ? logger.isWarnEnabled() : logger.isWarnEnabled(marker);
+            case ERROR:
+                return (marker == null) ? logger.isErrorEnabled() : logger.isErrorEnabled(marker);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Sends a buffered record to the wrapped logger.
+     *
+     * <p>
+     *     Markers are passed on as is, the wrapped logger is expected to
+     *     accept a {@code null} marker.
+     * </p>
+     */
+    void forward(LogRecord record) {
+        final Marker marker = record.marker;
+        final String format = record.format;
+        final Object[] arguments = (record.arity == LogRecord.VARARGS) ? record.arguments
+                : (record.arity == 2) ? new Object[] {record.arg1, record.arg2} : (record.arity == 1) ? new Object[] {record.arg1} : null;
+        // Like the direct calls, only trace and debug always print stacktraces.
+        final Throwable throwable = (record.level.compareTo(INFO) < 0 || isDebug()) ? record.throwable : null;
+
+        log(record.level, marker, format, arguments, throwable);
+    }
+
+    /**
+     * Sends a message to the wrapped logger.
+     */
+    void print(Level level, String message) {
+        log(level, null, message, null, null);
+    }
+
+    private void log(Level level, @Nullable Marker marker, String format, @Nullable Object[] arguments, @Nullable Throwable throwable) {
+        switch (level) {
+            case TRACE:
+                if (arguments != null) {
+                    logger.trace(marker, format, arguments);
+                } else if (throwable != null) {
+                    logger.trace(marker, format, throwable);
+                } else {
+                    logger.trace(marker, format);
+                }
+                break;
+            case DEBUG:
+                if (arguments != null) {
+                    logger.debug(marker, format, arguments);
+                } else if (throwable != null) {
+                    logger.debug(marker, format, throwable);
+                } else {
+                    logger.debug(marker, format);
+                }
+                break;
+            case INFO:
+                if (arguments != null) {
+                    logger.info(marker, format, arguments);
+                } else if (throwable != null) {
+                    logger.info(marker, format, throwable);
+                } else {
+                    logger.info(marker, format);
+                }
+                break;
+            case WARN:
+                if (arguments != null) {
+                    logger.warn(marker, format, arguments);
+                } else if (throwable != null) {
+                    logger.warn(marker, format, throwable);
+                } else {
+                    logger.warn(marker, format);
+                }
+                break;
+            case ERROR:
+                if (arguments != null) {
+                    logger.error(marker, format, arguments);
+                } else if (throwable != null) {
+                    logger.error(marker, format, throwable);
+                } else {
+                    logger.error(marker, format);
+                }
+                break;
+            default:
+        }
     }
 
 }
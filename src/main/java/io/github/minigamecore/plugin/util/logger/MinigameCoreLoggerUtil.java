@@ -25,134 +25,491 @@
 
 package io.github.minigamecore.plugin.util.logger;
 
-import static com.google.common.base.Throwables.getStackTraceAsString;
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.spongepowered.api.Sponge.getScheduler;
 
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
 import io.github.minigamecore.plugin.MinigameCore;
+import io.github.minigamecore.plugin.config.ConfigurationBinding;
 import io.github.minigamecore.plugin.config.Configurations;
+import io.github.minigamecore.plugin.util.logger.LoggingSettings.ConsoleMode;
+import io.github.minigamecore.plugin.util.logger.LoggingSettings.SegmentFormat;
 import org.slf4j.Logger;
+import org.slf4j.Marker;
 import org.spongepowered.api.scheduler.Task;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.zip.GZIPOutputStream;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Nullable;
 
 /**
  * The utility class for {@link MinigameCoreLogger}.
  */
 public final class MinigameCoreLoggerUtil {
 
-    private static final List<String> logBuffer = Lists.newArrayList();
-    private static File logFile;
+    private static final int DRAIN_BATCH = 512;
+    // How often (in milliseconds) the async console mode sends buffered records.
+    private static final long CONSOLE_INTERVAL = 20L;
+    private static final String JOURNAL = "journal.dat";
+    // Anchors System#nanoTime to the wall clock once.
+    private static final long CLOCK_BASE = System.currentTimeMillis() * 1000000L - System.nanoTime();
+    private static final AtomicBoolean flushRequested = new AtomicBoolean();
+    // Compared by identity, equal loggers still cache their level separately.
+    private static final Set<MinigameCoreLogger> loggers = Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+    private static final Object levelLock = new Object();
+    private static volatile LogBuffer logBuffer;
+    private static volatile LoggingSettings settings = LoggingSettings.DEFAULT;
+    private static ConfigurationBinding<LoggingSettings> binding;
+    private static MinigameCore plugin;
+    private static LogDirectory logDir;
+    private static Path logFile;
+    private static String logDate;
+    private static LogWriter writer;
+    private static LogCompressor compressor;
+    @Nullable private static LogJournal journal;
+    // The sequence of the last record drained.
+    private static long drained = -1L;
+
+    /**
+     * Gets the current time in nanoseconds since the epoch.
+     */
+    static long epochNanos() {
+        return CLOCK_BASE + System.nanoTime();
+    }
+
+    @Nullable
+    static synchronized Path getActiveSegment() {
+        return logFile;
+    }
+
+    @Nullable
+    static synchronized Path getLogDirectory() {
+        return (logDir == null) ? null : logDir.getPath();
+    }
+
+    @Nullable
+    static Logger getPluginLogger() {
+        final MinigameCore plugin = MinigameCoreLoggerUtil.plugin;
+        return (plugin == null) ? null : plugin.getLogger();
+    }
+
+    /**
+     * Checks if records are saved to a log file, which they are from
+     * {@link #createLogFile} on until {@link #compress}.
+     */
+    public static boolean isSaving() {
+        return logBuffer != null;
+    }
 
-    static void addToBuffer(LocalTime time, Level level, Logger logger, String message) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm:ss");
-        String val = "[" + time.format(formatter) + "] [" + level + "] [" + logger.getName() + "]: " + message + "\n";
-        logBuffer.add(val);
+    static boolean isDebug() {
+        return settings.debug;
+    }
+
+    /**
+     * Keeps the level of a logger in sync with the level table.
+     */
+    static void register(MinigameCoreLogger logger) {
+        synchronized (levelLock) {
+            loggers.add(logger);
+            configure(logger, settings);
+        }
     }
 
-    static void addToBuffer(LocalTime time, Level level, Logger logger, String message, Throwable throwable) {
-        addToBuffer(time, level, logger, message);
-        addToBuffer(time, level, logger, getStackTraceAsString(throwable));
+    // Swaps the settings, the loggers are updated before they see another table.
+    private static void apply(LoggingSettings settings) {
+        final LogBuffer buffer = logBuffer;
+
+        // The counts of the old limiters are logged before they are replaced.
+        if (buffer != null) {
+            sweep(buffer, true);
+        }
+
+        synchronized (levelLock) {
+            MinigameCoreLoggerUtil.settings = settings;
+            loggers.forEach(logger -> configure(logger, settings));
+        }
+    }
+
+    private static void configure(MinigameCoreLogger logger, LoggingSettings settings) {
+        logger.threshold = settings.levels.resolve(logger.suffix);
+        logger.limiter = logger.limited ? new LogLimiter(settings.repeatWindow, settings.rateLimits.resolve(logger.suffix))
+                : new LogLimiter(0L, 0);
+    }
+
+    static boolean addToBuffer(Level level, MinigameCoreLogger logger, @Nullable Marker marker, String message) {
+        return addToBuffer(level, logger, marker, message, 0, null, null, null, null);
+    }
+
+    static boolean addToBuffer(Level level, MinigameCoreLogger logger, @Nullable Marker marker, String message, Throwable throwable) {
+        return addToBuffer(level, logger, marker, message, 0, null, null, null, throwable);
+    }
+
+    static boolean addFormattedToBuffer(Level level, MinigameCoreLogger logger, @Nullable Marker marker, String format,
+            @Nullable Object arg) {
+        return addToBuffer(level, logger, marker, format, 1, arg, null, null, null);
+    }
+
+    static boolean addFormattedToBuffer(Level level, MinigameCoreLogger logger, @Nullable Marker marker, String format,
+            @Nullable Object arg1, @Nullable Object arg2) {
+        return addToBuffer(level, logger, marker, format, 2, arg1, arg2, null, null);
+    }
+
+    static boolean addFormattedToBuffer(Level level, MinigameCoreLogger logger, @Nullable Marker marker, String format,
+            @Nullable Object[] arguments) {
+        return addToBuffer(level, logger, marker, format, LogRecord.VARARGS, null, null, arguments, null);
+    }
+
+    /*
+     * Returns if the record is sent to the console through the buffer or
+     * suppressed, otherwise the caller sends it to the console itself.
+     * Records logged before createLogFile are only sent to the console.
+     */
+    private static boolean addToBuffer(Level level, MinigameCoreLogger logger, @Nullable Marker marker, String format, int arity,
+            @Nullable Object arg1, @Nullable Object arg2, @Nullable Object[] arguments, @Nullable Throwable throwable) {
+        final LogBuffer buffer = logBuffer;
+
+        if (buffer == null) {
+            return false;
+        }
+
+        final boolean save = logger.isSaved(level);
+        final boolean console = settings.console == ConsoleMode.ASYNC && logger.isConsoleEnabled(level, marker);
+
+        if (!save && !console) {
+            return false;
+        }
+
+        final LogLimiter limiter = logger.limiter;
+        final long repeats = limiter.check(level, format, System.nanoTime());
+
+        if (repeats == LogLimiter.SUPPRESS) {
+            return true;
+        }
+
+        if (repeats > 0) {
+            summarize(buffer, level, logger, limiter.summary(format, repeats));
+        }
+
+        return offer(buffer, level, logger, marker, save, console, format, arity, arg1, arg2, arguments, throwable);
     }
 
-    public static void compress(Logger logger) {
+    private static boolean offer(LogBuffer buffer, Level level, MinigameCoreLogger logger, @Nullable Marker marker, boolean save,
+            boolean console, String format, int arity, @Nullable Object arg1, @Nullable Object arg2, @Nullable Object[] arguments,
+            @Nullable Throwable throwable) {
+        final int route = (save ? LogRecord.SAVE : 0) | (console ? LogRecord.CONSOLE : 0);
 
-        try (BufferedOutputStream outputStream = new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(logFile.toString() + ".gz")));
-                BufferedInputStream inputStream = new BufferedInputStream(new FileInputStream(logFile))) {
-            byte[] buffer = new byte[1024];
-            int length;
+        if (route == 0) {
+            return false;
+        }
 
-            while ((length = inputStream.read(buffer)) != -1) {
-                outputStream.write(buffer, 0, length);
+        if (buffer.offer(epochNanos(), level, logger, marker, route, format, arity, arg1, arg2, arguments, throwable)) {
+            // Errors are sent, after everything before them, before the call returns.
+            if (console && level == Level.ERROR) {
+                catchUp();
             }
 
-            Files.deleteIfExists(logFile.toPath());
-        } catch (IOException e) {
-            logger.error(format("Error compressing %s to %s. Deleting %s", logFile, logFile.toString() + ".gz", logFile.toString() + ".gz"), e);
+            return console;
+        }
 
-            try {
-                Files.deleteIfExists(Paths.get(logFile.toString() + ".gz"));
-            } catch (IOException e1) {
-                logger.error(format("Error deleting %s", logFile.toString() + ".gz"), e);
+        // Records that did not fit are printed by the caller once everything before them has been sent.
+        if (console) {
+            catchUp();
+        }
+
+        return false;
+    }
+
+    // Logs a count kept by a LogLimiter, bypassing it.
+    private static void summarize(LogBuffer buffer, Level level, MinigameCoreLogger logger, String message) {
+        final boolean save = logger.isSaved(level);
+        final boolean console = settings.console == ConsoleMode.ASYNC && logger.isConsoleEnabled(level, null);
+
+        if (!offer(buffer, level, logger, null, save, console, message, 0, null, null, null, null)) {
+            logger.print(level, message);
+        }
+    }
+
+    // Logs the counts of the repeat windows that are over and of the rate limited records.
+    private static void sweep(LogBuffer buffer, boolean all) {
+        final long now = System.nanoTime();
+
+        for (MinigameCoreLogger logger : loggers) {
+            final LogLimiter limiter = logger.limiter;
+            final long limited = limiter.sweep(now, all, (level, message) -> summarize(buffer, level, logger, message));
+
+            if (limited > 0) {
+                summarize(buffer, Level.WARN, logger, limiter.rateSummary(limited));
             }
         }
     }
 
-    public static void createLogFile(MinigameCore plugin, String date, Logger logger) {
-        Path dir = Paths.get("logs", plugin.getPluginContainer().getId());
+    // A thread already draining or flushing is sending the records before this one.
+    private static void catchUp() {
+        if (!Thread.holdsLock(MinigameCoreLoggerUtil.class) && plugin != null) {
+            drain(plugin.getLogger());
+        }
+    }
 
-        if (Files.notExists(dir)) {
+    /**
+     * Seals the active log segment.
+     *
+     * <p>
+     *     Closed segments are already compressed in the background, so only
+     *     the active one is left to compress.
+     * </p>
+     */
+    public static synchronized void compress(Logger logger) {
+        flush(logger);
+        logBuffer = null; // Anything logged from now on only goes to the console.
+        closeWriter(logger);
+        closeJournal(logger);
 
+        if (compressor == null) {
+            return;
+        }
+
+        if (logFile != null) {
+            compressor.submit(logFile, settings);
+            logFile = null;
+        }
+
+        if (!compressor.shutdown(1, MINUTES)) {
+            logger.warn("Log segments are still being compressed, they will be left uncompressed.");
+        }
+    }
+
+    public static synchronized void createLogFile(MinigameCore plugin, String date, Logger logger) {
+        MinigameCoreLoggerUtil.plugin = plugin;
+        apply(loadSettings());
+
+        try {
+            logDir = LogDirectory.open(Paths.get("logs", plugin.getPluginContainer().getId()), logger);
+        } catch (IOException e) {
+            logger.error("Could not open the log directory, records will not be saved.", e);
+            return;
+        }
+
+        compressor = new LogCompressor(logger, logDir);
+        recover(date, logger);
+        logBuffer = new LogBuffer(settings, MinigameCoreLoggerUtil::requestFlush, journal);
+        compressor.prune(settings);
+        openSegment(date, logger);
+        schedule(plugin);
+    }
+
+    // Seals the segments left behind by a crash, after adding the records of the journal, and opens a new journal.
+    private static void recover(String date, Logger logger) {
+        final Path path = logDir.getPath().resolve(JOURNAL);
+        final List<Path> unsealed = new ArrayList<>(logDir.getUnsealed());
+
+        if (Files.exists(path)) {
             try {
-                Files.createDirectories(dir);
+                final Path segment = LogJournal.recover(path, logDir, date);
+
+                if (segment != null && !unsealed.contains(segment)) {
+                    unsealed.add(segment);
+                }
             } catch (IOException e) {
-                e.printStackTrace(); // TODO log
+                logger.error(format("Could not recover %s", path), e);
             }
         }
 
-        //noinspection ConstantConditions
-        for (int i = 1; i <= Short.MAX_VALUE; i++) {
-            Path file = dir.resolve(date + "-" + i + ".log");
+        unsealed.forEach(segment -> compressor.submit(segment, settings));
 
-            if (Files.notExists(file) && Files.notExists(Paths.get(file.toString() + ".gz"))) {
-                try {
-                    Files.createFile(file);
-                    schedule(plugin);
-                } catch (IOException e) {
-                    e.printStackTrace(); // TODO log
-                }
+        try {
+            if (settings.journal && settings.format == SegmentFormat.TEXT) {
+                journal = LogJournal.open(path, settings.journalSize);
+            } else {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            logger.error(format("Could not open %s, records will not be journaled", path), e);
+        }
+    }
+
+    private static void openSegment(String date, Logger logger) {
+        final Path file = logDir.next(date, settings.format);
+
+        try {
+            writer = (settings.format == SegmentFormat.BINARY) ? new BinaryLogWriter(file, settings.fsync)
+                    : new TextLogWriter(file, settings.fsync);
+            writer.setJournal(journal);
+            logFile = file;
+            logDate = date;
+            checkpoint();
+        } catch (IOException e) {
+            logger.error(format("Could not open %s", file), e);
+        }
+    }
 
-                logFile = file.toFile();
-                schedule(plugin);
-                break;
+    // Called once everything drained is in the file, from the page cache the file survives a crash of the JVM.
+    private static void checkpoint() {
+        if (journal != null && writer != null) {
+            journal.checkpoint(drained, writer.getPath(), writer.size());
+        }
+    }
+
+    // Closes the active segment, queues it for compression and opens the next one.
+    private static void roll(Logger logger) {
+        closeWriter(logger);
+        compressor.submit(logFile, settings);
+        openSegment(LocalDate.now().toString(), logger);
+    }
+
+    public static synchronized void flush(Logger logger) {
+        final LogBuffer buffer = logBuffer;
+
+        if (buffer != null) {
+            sweep(buffer, false);
+        }
+
+        drain(logger);
+
+        try {
+            if (writer != null) {
+                writer.flush();
+                checkpoint();
             }
+        } catch (IOException e) {
+            logger.warn("Could not save log message.", e);
         }
     }
 
-    public static void flush(Logger logger) {
-        List<String> logBuffer = ImmutableList.copyOf(MinigameCoreLoggerUtil.logBuffer);
-        MinigameCoreLoggerUtil.logBuffer.clear();
+    // Sends the buffered records to the console and the log file, without flushing it.
+    private static synchronized void drain(Logger logger) {
+        final LogBuffer buffer = logBuffer;
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(logFile, true))) {
-            logBuffer.forEach(log -> {
+        if (buffer == null) {
+            return;
+        }
 
-                try {
-                    writer.write(log);
-                } catch (IOException e) {
-                    logger.warn("Could not save log message.", e);
-                }
-            });
+        if (writer != null && (System.currentTimeMillis() - writer.getOpened() >= settings.rollInterval
+                || !logDate.equals(LocalDate.now().toString()))) {
+            roll(logger);
+        }
+
+        //noinspection StatementWithEmptyBody
+        while (buffer.drain(record -> dispatch(record, logger), DRAIN_BATCH) == DRAIN_BATCH) {
+        }
+
+        // Reported once the drain has caught up, so it follows the records that survived.
+        final String dropReport = buffer.takeDropReport();
+
+        if (dropReport != null && writer != null) {
+            try {
+                writer.append(epochNanos(), Level.WARN, logger.getName(), dropReport);
+            } catch (IOException e) {
+                logger.warn("Could not save log message.", e);
+            }
+        }
+    }
+
+    private static void dispatch(LogRecord record, Logger logger) {
+        if (record.isConsole()) {
+            record.logger.forward(record);
+        }
+
+        if (record.isSaved()) {
+            append(record, logger);
+        }
+
+        drained = record.sequence;
+    }
+
+    private static void append(LogRecord record, Logger logger) {
+        if (writer != null && writer.size() >= settings.rollSize) {
+            roll(logger);
+        }
+
+        if (writer == null) {
+            return;
+        }
+
+        try {
+            writer.append(record);
+            writer.mark(record.sequence);
         } catch (IOException e) {
             logger.warn("Could not save log message.", e);
         }
     }
 
+    private static void closeWriter(Logger logger) {
+        if (writer == null) {
+            return;
+        }
+
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.warn(format("Could not close %s", writer.getPath()), e);
+        }
+
+        writer = null;
+    }
+
+    private static void closeJournal(Logger logger) {
+        if (journal == null) {
+            return;
+        }
+
+        // Everything was flushed, there is nothing left to recover.
+        try {
+            journal.close();
+            Files.deleteIfExists(logDir.getPath().resolve(JOURNAL));
+        } catch (IOException e) {
+            logger.warn("Could not close the log journal.", e);
+        }
+
+        journal = null;
+    }
+
+    // The snapshot is rebuilt whenever global.conf is loaded.
+    private static LoggingSettings loadSettings() {
+        if (binding == null) {
+            //noinspection OptionalGetWithoutIsPresent
+            binding = ConfigurationBinding.bind(Configurations.get("global").get(), node -> LoggingSettings.from(node.getNode("logging")));
+        }
+
+        return binding.get();
+    }
+
+    // Used by the block overflow policy, at most one early flush is queued at a time.
+    private static void requestFlush() {
+        if (plugin != null && flushRequested.compareAndSet(false, true)) {
+            getScheduler().createTaskBuilder().async().name(plugin.getPluginContainer().getId() + "-A-641").execute(() -> {
+                flushRequested.set(false);
+                flush(plugin.getLogger());
+            }).submit(plugin);
+        }
+    }
+
     public static void schedule(MinigameCore plugin) {
-        //noinspection OptionalGetWithoutIsPresent
-        final long interval = Configurations.get("global").get().get().getNode("logging", "flush").getLong(15L);
+        apply(loadSettings());
+        final long interval = settings.flush;
         getScheduler().createTaskBuilder().async().name(plugin.getPluginContainer().getId() + "-A-640").delay(interval, SECONDS)
                 .interval(interval, SECONDS).execute(() -> flush(plugin.getLogger())).submit(plugin);
+
+        if (settings.console == ConsoleMode.ASYNC) {
+            getScheduler().createTaskBuilder().async().name(plugin.getPluginContainer().getId() + "-A-642")
+                    .interval(CONSOLE_INTERVAL, MILLISECONDS).execute(() -> drain(plugin.getLogger())).submit(plugin);
+        }
     }
 
     public static void cancelTask(MinigameCore plugin) {
         getScheduler().getTasksByName(plugin.getPluginContainer().getId() + "-A-640").forEach(Task::cancel);
+        getScheduler().getTasksByName(plugin.getPluginContainer().getId() + "-A-642").forEach(Task::cancel);
     }
 
     private MinigameCoreLoggerUtil() {
@@ -162,11 +519,15 @@ private MinigameCoreLoggerUtil() {
      * The {@link Logger} levels for saving to log file.
      */
     public enum Level {
+        TRACE,
         DEBUG,
-        ERROR,
         INFO,
-        TRACE,
-        WARN
+        WARN,
+        ERROR,
+        /**
+         * Only used as a threshold, nothing is logged at this level.
+         */
+        OFF
     }
 
 }
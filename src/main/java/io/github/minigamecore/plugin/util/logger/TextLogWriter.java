@@ -0,0 +1,106 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.util.logger;
+
+import static com.google.common.base.Throwables.getStackTraceAsString;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import io.github.minigamecore.plugin.util.logger.LoggingSettings.FsyncPolicy;
+import io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.Level;
+import org.slf4j.helpers.FormattingTuple;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+
+/**
+ * Writes {@code [HH:mm:ss] [LEVEL] [name]: message} lines.
+ */
+final class TextLogWriter extends LogWriter {
+
+    private final CharsetEncoder encoder = UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final StringBuilder line = new StringBuilder(256);
+    private char[] chars = new char[256];
+    private CharBuffer charBuffer = CharBuffer.wrap(chars);
+    private long second = Long.MIN_VALUE;
+    private String stamp;
+
+    TextLogWriter(Path path, FsyncPolicy fsync) throws IOException {
+        super(path, fsync);
+    }
+
+    @Override
+    void append(LogRecord record) throws IOException {
+        final FormattingTuple tuple = record.render();
+        final String name = record.logger.getName();
+        append(record.time, record.level, name, tuple.getMessage());
+
+        if (tuple.getThrowable() != null) {
+            append(record.time, record.level, name, getStackTraceAsString(tuple.getThrowable()));
+        }
+    }
+
+    @Override
+    void append(long time, Level level, String name, String message) throws IOException {
+        line.setLength(0);
+        LogLines.formatLine(line, time(time), level, name, message).append('\n');
+        encode();
+    }
+
+    private void encode() throws IOException {
+        final int length = line.length();
+
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+            charBuffer = CharBuffer.wrap(chars);
+        }
+
+        line.getChars(0, length, chars, 0);
+        charBuffer.limit(length).position(0);
+        encoder.reset();
+
+        while (!encoder.encode(charBuffer, buffer(), true).isUnderflow()) {
+            advance();
+        }
+    }
+
+    // Log lines are only stamped to the second, so the text is reused.
+    private String time(long time) {
+        final long s = time / 1000000000L;
+
+        if (s != second) {
+            second = s;
+            stamp = LogLines.formatTime(time);
+        }
+
+        return stamp;
+    }
+
+}
@@ -27,43 +27,189 @@
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.inject.CreationException;
 import com.google.inject.Injector;
+import com.google.inject.Key;
 import com.google.inject.Module;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
 import io.github.minigamecore.api.util.manager.GuiceManager;
+import io.github.minigamecore.plugin.util.logger.MinigameCoreLogger;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nonnull;
 
 /**
- * .
+ * Collects the modules of all plugins into one child injector.
+ *
+ * <p>
+ *     Modules registered during pre-initialization are only collected, the
+ *     injector is built once from all of them by {@link #build()} at the end
+ *     of pre-initialization. Until then {@link #getInjector()} returns the
+ *     MinigameCore injector, without the bindings of the collected modules.
+ * </p>
+ *
+ * <p>
+ *     Should the injector fail to build, every registration gets a child
+ *     injector of its own instead, so only the registrations whose modules
+ *     fail are left out.
+ * </p>
+ *
+ * <p>
+ *     Every module registered after that gets a child injector of its own,
+ *     which makes the injector chain, and every lookup through it, deeper.
+ * </p>
+ *
+ * <p>
+ *     {@link #getProvider(Class)} and {@link #getProvider(Key)} cache the
+ *     providers of the current injector, a repeated lookup skips building
+ *     the key and searching the bindings. The cache belongs to the injector
+ *     it was filled from, so replacing the injector starts a new one.
+ * </p>
  */
 @Singleton
 public final class GuiceManagerImpl implements GuiceManager {
 
-    private Injector injector;
+    private final Logger logger = new MinigameCoreLogger("GuiceManager");
+    // The modules of every registration, in order.
+    private final List<List<Module>> registrations = new ArrayList<>();
+    private volatile Lookup lookup = new Lookup(null);
+    private boolean built;
 
     @Nonnull
     @Override public Injector getInjector() {
-        return injector;
+        return lookup.injector;
+    }
+
+    /**
+     * Gets the cached provider of a type.
+     *
+     * @param type The type
+     * @param <T> The type
+     * @return The provider of the current injector
+     */
+    @Nonnull
+    public <T> Provider<T> getProvider(@Nonnull Class<T> type) {
+        checkNotNull(type, "type");
+        final Lookup lookup = this.lookup;
+        @SuppressWarnings("unchecked")
+        final Provider<T> provider = (Provider<T>) lookup.providers.computeIfAbsent(type, key -> lookup.injector.getProvider(type));
+        return provider;
+    }
+
+    /**
+     * Gets the cached provider of a key.
+     *
+     * @param key The key
+     * @param <T> The type of the key
+     * @return The provider of the current injector
+     */
+    @Nonnull
+    public <T> Provider<T> getProvider(@Nonnull Key<T> key) {
+        checkNotNull(key, "key");
+        final Lookup lookup = this.lookup;
+        @SuppressWarnings("unchecked")
+        final Provider<T> provider = (Provider<T>) lookup.providers.computeIfAbsent(key, ignored -> lookup.injector.getProvider(key));
+        return provider;
+    }
+
+    /**
+     * Gets an instance of a type through its cached provider.
+     *
+     * @param type The type
+     * @param <T> The type
+     * @return The instance
+     */
+    @Nonnull
+    public <T> T getInstance(@Nonnull Class<T> type) {
+        return getProvider(type).get();
     }
 
     @Override
     public void registerChildInjector(@Nonnull Module module) {
         checkNotNull(module, "module");
-        injector = injector.createChildInjector(module);
+        register(Collections.singletonList(module));
     }
 
     @Override
     public void registerChildInjector(@Nonnull Module[] modules) {
         checkNotNull(modules, "modules");
-        injector = injector.createChildInjector(modules);
+        register(Arrays.asList(modules));
     }
 
     /*
      * Special case for first time initialization.
      */
     public void setInjector(@Nonnull Injector injector) {
-        this.injector = injector;
+        this.lookup = new Lookup(injector);
+    }
+
+    /**
+     * Builds the injector from the modules registered so far.
+     */
+    public synchronized void build() {
+        if (built) {
+            return;
+        }
+
+        final List<Module> modules = new ArrayList<>();
+        registrations.forEach(modules::addAll);
+
+        if (!modules.isEmpty()) {
+            try {
+                setInjector(getInjector().createChildInjector(modules));
+                logger.debug("Built the injector from {} modules.", modules.size());
+            } catch (CreationException e) {
+                logger.error("Could not build the injector from all modules, building one for each registration instead.", e);
+                registrations.forEach(this::buildSeparately);
+            }
+        }
+
+        registrations.clear();
+        built = true;
+    }
+
+    private void buildSeparately(List<Module> modules) {
+        try {
+            setInjector(getInjector().createChildInjector(modules));
+        } catch (CreationException e) {
+            logger.error("Could not create the child injector of " + names(modules) + ", its bindings are not available.", e);
+        }
+    }
+
+    private static String names(List<Module> modules) {
+        final StringBuilder names = new StringBuilder();
+        modules.forEach(module -> names.append(names.length() == 0 ? "" : ", ").append(module.getClass().getName()));
+        return names.toString();
+    }
+
+    private synchronized void register(List<Module> modules) {
+        if (!built) {
+            registrations.add(new ArrayList<>(modules));
+            return;
+        }
+
+        logger.info("{} modules were registered after pre-initialization, they get a child injector of their own.", modules.size());
+        setInjector(getInjector().createChildInjector(modules));
+    }
+
+    // An injector and the providers looked up from it, replaced together.
+    private static final class Lookup {
+
+        final Injector injector;
+        final Map<Object, Provider<?>> providers = new ConcurrentHashMap<>();
+
+        Lookup(Injector injector) {
+            this.injector = injector;
+        }
+
     }
 
 }
@@ -0,0 +1,230 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.util.reflect;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The catalog mappings read from an MCAP catalog file.
+ *
+ * <p>
+ *     The file is read token by token, only the type, container, field and
+ *     value names are kept. A catalog file has the following layout, every
+ *     other key is skipped:
+ * </p>
+ *
+ * <pre>
+ * {
+ *   "version": 1,
+ *   "mappings": {
+ *     "&lt;catalog type&gt;": {
+ *       "&lt;container class&gt;": { "&lt;field&gt;": "&lt;value class&gt;" }
+ *     }
+ *   }
+ * }
+ * </pre>
+ *
+ * <p>
+ *     A container may also hold an array of such objects.
+ * </p>
+ */
+public final class CatalogMappings {
+
+    private final int version;
+    private final List<Container> containers;
+
+    private CatalogMappings(int version, List<Container> containers) {
+        this.version = version;
+        this.containers = containers;
+    }
+
+    /**
+     * Reads catalog mappings. The reader is not closed.
+     *
+     * @param reader The catalog file
+     * @return The mappings
+     * @throws IOException If the file could not be read or is not a catalog
+     *     file
+     */
+    public static CatalogMappings read(Reader reader) throws IOException {
+        final JsonReader json = new JsonReader(reader);
+        final List<Container> containers = new ArrayList<>();
+        int version = 0;
+
+        try {
+            json.beginObject();
+
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "version":
+                        if (json.peek() == JsonToken.NUMBER) {
+                            version = json.nextInt();
+                        } else {
+                            json.skipValue();
+                        }
+
+                        break;
+                    case "mappings":
+                        readTypes(json, containers);
+                        break;
+                    default:
+                        json.skipValue();
+                }
+            }
+
+            json.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Not a catalog file: " + e.getMessage(), e);
+        }
+
+        return new CatalogMappings(version, ImmutableList.copyOf(containers));
+    }
+
+    /**
+     * Gets the version of the catalog file.
+     *
+     * @return The version, 0 if it is missing
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the containers in the order of the catalog file.
+     */
+    public List<Container> getContainers() {
+        return containers;
+    }
+
+    private static void readTypes(JsonReader json, List<Container> containers) throws IOException {
+        json.beginObject();
+
+        while (json.hasNext()) {
+            final String type = json.nextName();
+            json.beginObject();
+
+            while (json.hasNext()) {
+                final String name = json.nextName();
+                final Map<String, String> fields = new LinkedHashMap<>();
+
+                if (json.peek() == JsonToken.BEGIN_ARRAY) {
+                    json.beginArray();
+
+                    while (json.hasNext()) {
+                        readFields(json, fields);
+                    }
+
+                    json.endArray();
+                } else {
+                    readFields(json, fields);
+                }
+
+                if (!fields.isEmpty()) {
+                    containers.add(new Container(type, name, fields));
+                }
+            }
+
+            json.endObject();
+        }
+
+        json.endObject();
+    }
+
+    private static void readFields(JsonReader json, Map<String, String> fields) throws IOException {
+        json.beginObject();
+
+        while (json.hasNext()) {
+            final String field = json.nextName();
+
+            if (json.peek() == JsonToken.STRING) {
+                fields.put(field, json.nextString());
+            } else {
+                json.skipValue();
+            }
+        }
+
+        json.endObject();
+    }
+
+    /**
+     * The fields of one container class that hold catalog types.
+     */
+    public static final class Container {
+
+        private final String type;
+        private final String name;
+        private final Map<String, String> fields;
+
+        Container(String type, String name, Map<String, String> fields) {
+            this.type = type;
+            this.name = name;
+            this.fields = Collections.unmodifiableMap(fields);
+        }
+
+        /**
+         * Gets the name of the catalog type the fields hold.
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * Gets the name of the container class.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the class names of the values, by field name.
+         */
+        public Map<String, String> getFields() {
+            return fields;
+        }
+
+        @Override
+        public String toString() {
+            return Objects.toStringHelper(this)
+                    .add("type", type)
+                    .add("name", name)
+                    .add("fields", fields.size())
+                    .toString();
+        }
+
+    }
+
+}
@@ -25,13 +25,13 @@
 
 package io.github.minigamecore.plugin.util.reflect;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import com.google.inject.Inject;
-import com.google.inject.Injector;
 import io.github.minigamecore.api.util.manager.GuiceManager;
 import io.github.minigamecore.plugin.MinigameCore;
 import io.github.minigamecore.plugin.util.logger.MinigameCoreLogger;
-import ninja.leaping.configurate.ConfigurationNode;
-import ninja.leaping.configurate.gson.GsonConfigurationLoader;
+import io.github.minigamecore.plugin.util.manager.GuiceManagerImpl;
 import org.slf4j.Logger;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.asset.Asset;
@@ -39,110 +39,129 @@
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.Optional;
 import java.util.zip.GZIPInputStream;
 
+import javax.annotation.Nullable;
+
 /**
  * Applies {@code assets/minigamecore/mcap/catalog.json.gz} or
  * {@code assets/minigamecore/mcap/catalog.json}.
  */
 public final class CatalogTypeApplier {
 
+    // Catalogs generated by MCAP can be large.
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private final Logger logger = new MinigameCoreLogger("catalog");
     private final MinigameCore plugin;
-    private final Injector injector;
+    private final GuiceManagerImpl guiceManager;
     private final Reflection reflection;
-    private ConfigurationNode node;
 
     @Inject
     private CatalogTypeApplier(Reflection reflection, MinigameCore plugin, GuiceManager guiceManager) {
         this.reflection = reflection;
         this.plugin = plugin;
-        this.injector = guiceManager.getInjector();
+        this.guiceManager = (GuiceManagerImpl) guiceManager;
     }
 
     public void apply() {
 
         try {
-
-            if (discoverCatalogFile()) {
-                int v = checkVersion();
-
-                switch (v) {
-                    case 0:
-                        logger.warn("Could not apply catalog mappings. Is the `version` present and greater than 0");
-                        break;
-                    case 1:
-                        logger.debug("Version 1 catalog mappings found, applying");
-                        applyV1Mappings();
-                        break;
-                    default:
-                        logger.warn("{} is not a valid version number", v);
-                }
-            }
+            apply(discover(plugin));
         } catch (IOException e) {
             logger.debug(e.getMessage(), e);
         }
     }
 
-    private ConfigurationNode getNode() {
-        return node;
-    }
-
-    private boolean discoverCatalogFile() throws IOException {
-        Optional<Asset> assetOptional = Sponge.getAssetManager().getAsset(plugin, "mcap/catalog.json.gz");
+    /**
+     * Applies catalog mappings read by {@link #discover(MinigameCore)}.
+     *
+     * @param mappings The mappings, {@code null} if no mappings file was
+     *     found
+     */
+    public void apply(@Nullable CatalogMappings mappings) {
+        if (mappings == null) {
+            logger.warn("No catalog mappings file found. This will be a problem");
+            return;
+        }
 
-        if (!assetOptional.isPresent()) {
-            assetOptional = Sponge.getAssetManager().getAsset(plugin, "mcap/catalog.json");
+        int v = mappings.getVersion();
+
+        switch (v) {
+            case 0:
+                logger.warn("Could not apply catalog mappings. Is the `version` present and greater than 0");
+                break;
+            case 1:
+                logger.debug("Version 1 catalog mappings found, applying");
+                applyV1Mappings(mappings);
+                break;
+            default:
+                logger.warn("{} is not a valid version number", v);
+        }
+    }
 
-            if (!assetOptional.isPresent()) {
-                logger.warn("No catalog mappings file found. This will be a problem");
-                return false;
+    /**
+     * Reads the catalog mappings file. Nothing is applied, so it can run
+     * before the injector is built and off the main thread.
+     *
+     * <p>
+     *     The file is streamed, the compressed file through a large buffer.
+     * </p>
+     *
+     * @param plugin The MinigameCore plugin
+     * @return The mappings, or {@code null} if no mappings file was found
+     * @throws IOException If the mappings file could not be read
+     */
+    @Nullable
+    public static CatalogMappings discover(MinigameCore plugin) throws IOException {
+        final Optional<Asset> compressed = Sponge.getAssetManager().getAsset(plugin, "mcap/catalog.json.gz");
+
+        if (compressed.isPresent()) {
+            try (Reader reader = new InputStreamReader(new GZIPInputStream(compressed.get().getUrl().openStream(), BUFFER_SIZE), UTF_8)) {
+                return CatalogMappings.read(new BufferedReader(reader, BUFFER_SIZE));
             }
+        }
 
-            node = GsonConfigurationLoader.builder().setURL(assetOptional.get().getUrl()).build().load();
-            return true;
+        final Optional<Asset> asset = Sponge.getAssetManager().getAsset(plugin, "mcap/catalog.json");
+
+        if (!asset.isPresent()) {
+            return null;
         }
 
-        Optional<Asset> finalAssetOptional = assetOptional;
-        //noinspection OptionalGetWithoutIsPresent
-        node = GsonConfigurationLoader.builder().setSource(() -> new BufferedReader(new InputStreamReader(new GZIPInputStream(finalAssetOptional.get()
-                .getUrl().openStream())))).build().load();
-        return true;
+        try (Reader reader = new InputStreamReader(asset.get().getUrl().openStream(), UTF_8)) {
+            return CatalogMappings.read(new BufferedReader(reader, BUFFER_SIZE));
+        }
     }
 
-    private int checkVersion() {
-        return node.getNode("version").getInt();
-    }
+    private void applyV1Mappings(CatalogMappings mappings) {
+        for (CatalogMappings.Container container : mappings.getContainers()) {
+            final Class<?> clazz;
 
-    private void applyV1Mappings() {
-        getNode().getNode("mappings").getChildrenMap().forEach((typeKey, value) -> {
-            final String type = (String) typeKey;
+            try {
+                clazz = Class.forName(container.getName());
+            } catch (ClassNotFoundException e) {
+                logger.debug(e.getMessage(), e);
+                continue;
+            }
 
-            value.getChildrenMap().forEach((containerKey, val) -> {
+            container.getFields().forEach((name, value) -> {
                 try {
-                    Class clazz = Class.forName((String) containerKey);
-
-                    val.getChildrenList().forEach(v -> {
-                        try {
-                            Field field = clazz.getField((String) v.getKey());
-                            if (typeCheck(type, field)) {
-                                applyReflections(field, injector.getInstance(Class.forName((String) v.getValue())));
-                                return;
-                            }
-
-                            logger.warn("Cannot apply value to field {} in class {}, as the types don't match", field, clazz.getCanonicalName());
-                        } catch (ClassNotFoundException | NoSuchFieldException | IllegalAccessException e) {
-                            logger.debug(e.getMessage(), e);
-                        }
-                    });
-                } catch (ClassNotFoundException e) {
+                    Field field = clazz.getField(name);
+                    if (typeCheck(container.getType(), field)) {
+                        applyReflections(field, guiceManager.getInstance(Class.forName(value)));
+                        return;
+                    }
+
+                    logger.warn("Cannot apply value to field {} in class {}, as the types don't match", field, clazz.getCanonicalName());
+                } catch (ClassNotFoundException | NoSuchFieldException | IllegalAccessException e) {
                     logger.debug(e.getMessage(), e);
                 }
             });
-        });
+        }
     }
 
     private void applyReflections(Field field, Object value) throws NoSuchFieldException, IllegalAccessException {
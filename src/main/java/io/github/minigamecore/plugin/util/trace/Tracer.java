@@ -0,0 +1,250 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.util.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.gson.stream.JsonWriter;
+import io.github.minigamecore.plugin.util.logger.MinigameCoreLogger;
+import io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Records how long the phases of MinigameCore take, such as the startup
+ * steps and reloads.
+ *
+ * <p>
+ *     A phase is recorded by closing the {@link Span} returned by
+ *     {@link #start(String, String)}, usually in a finally block. Closed
+ *     spans are logged at debug level and the last {@link #CAPACITY} are
+ *     kept, they can be read through {@link #getSpans()} or written as
+ *     Chrome trace events by {@link #dump(Path)}, which
+ *     {@code chrome://tracing} and Perfetto open.
+ * </p>
+ *
+ * <p>
+ *     The logger of the spans is never limited. Spans closed before the log
+ *     file is opened are logged with the first span closed after it.
+ * </p>
+ */
+public final class Tracer {
+
+    static final int CAPACITY = 4096;
+
+    // Span times are relative to the class being loaded, early in startup.
+    private static final long BASE = System.nanoTime();
+    private static final Logger logger = new MinigameCoreLogger("trace", false);
+    private static final Deque<Span> spans = new ArrayDeque<>();
+    // Closed while nothing was saved yet, guarded by spans.
+    private static final List<Span> unsaved = new ArrayList<>();
+
+    private Tracer() {
+    }
+
+    /**
+     * Starts a span on the current thread.
+     *
+     * @param category The category, such as {@code startup} or
+     *     {@code reload}
+     * @param name The name of the phase
+     * @return The span, close it when the phase is done
+     */
+    public static Span start(String category, String name) {
+        checkNotNull(category, "category");
+        checkNotNull(name, "name");
+
+        final Thread thread = Thread.currentThread();
+        return new Span(category, name, thread.getName(), thread.getId(), System.nanoTime() - BASE);
+    }
+
+    /**
+     * Gets the closed spans, oldest first.
+     */
+    public static List<Span> getSpans() {
+        synchronized (spans) {
+            return ImmutableList.copyOf(spans);
+        }
+    }
+
+    /**
+     * Writes the closed spans as a Chrome trace event file.
+     *
+     * @param path The file
+     * @return The number of spans written
+     * @throws IOException If the file could not be written
+     */
+    public static int dump(Path path) throws IOException {
+        final List<Span> spans = getSpans();
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        try (Writer out = Files.newBufferedWriter(path, UTF_8); JsonWriter json = new JsonWriter(out)) {
+            json.beginObject();
+            json.name("displayTimeUnit").value("ms");
+            json.name("traceEvents").beginArray();
+
+            for (Span span : spans) {
+                // Complete events, timestamps are in microseconds.
+                json.beginObject()
+                        .name("name").value(span.name)
+                        .name("cat").value(span.category)
+                        .name("ph").value("X")
+                        .name("ts").value(span.start / 1000L)
+                        .name("dur").value(span.duration / 1000L)
+                        .name("pid").value(1)
+                        .name("tid").value(span.threadId)
+                        .name("args").beginObject().name("thread").value(span.thread).endObject()
+                        .endObject();
+            }
+
+            json.endArray();
+            json.endObject();
+        }
+
+        return spans.size();
+    }
+
+    private static void record(Span span) {
+        final List<Span> saved;
+
+        synchronized (spans) {
+            if (spans.size() == CAPACITY) {
+                spans.removeFirst();
+            }
+
+            spans.addLast(span);
+
+            if (!MinigameCoreLoggerUtil.isSaving()) {
+                if (unsaved.size() < CAPACITY) {
+                    unsaved.add(span);
+                }
+
+                return;
+            }
+
+            if (unsaved.isEmpty()) {
+                saved = Collections.singletonList(span);
+            } else {
+                unsaved.add(span);
+                saved = new ArrayList<>(unsaved);
+                unsaved.clear();
+            }
+        }
+
+        for (Span closed : saved) {
+            logger.debug("{} {} took {} ms.", closed.category, closed.name, closed.duration / 1000000L);
+        }
+    }
+
+    /**
+     * A timed phase.
+     */
+    public static final class Span implements AutoCloseable {
+
+        private final String category;
+        private final String name;
+        private final String thread;
+        private final long threadId;
+        private final long start;
+        private volatile long duration = -1L;
+
+        private Span(String category, String name, String thread, long threadId, long start) {
+            this.category = category;
+            this.name = name;
+            this.thread = thread;
+            this.threadId = threadId;
+            this.start = start;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the name of the thread the span was started on.
+         */
+        public String getThread() {
+            return thread;
+        }
+
+        /**
+         * Gets the start in nanoseconds, relative to the start of the tracer.
+         */
+        public long getStart() {
+            return start;
+        }
+
+        /**
+         * Gets the duration in nanoseconds, or {@code -1} while it is open.
+         */
+        public long getDuration() {
+            return duration;
+        }
+
+        /**
+         * Ends the span, closing it again does nothing.
+         */
+        @Override
+        public void close() {
+            if (duration < 0) {
+                duration = System.nanoTime() - BASE - start;
+                record(this);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return Objects.toStringHelper(this)
+                    .add("category", category)
+                    .add("name", name)
+                    .add("thread", thread)
+                    .add("start", start)
+                    .add("duration", duration)
+                    .toString();
+        }
+
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.config;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import ninja.leaping.configurate.ConfigurationOptions;
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+import ninja.leaping.configurate.commented.SimpleCommentedConfigurationNode;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+public class ConfigurationCacheTest {
+
+    // Whole seconds, every file system keeps them.
+    private static final long MODIFIED = 1_000_000_000_000L;
+    private static final HashCode DEFAULTS = Hashing.murmur3_128().hashInt(1);
+
+    @Rule public final TemporaryFolder folder = new TemporaryFolder();
+    private ConfigurationCache cache;
+    private Path file;
+    private HashCode hash;
+
+    @Before
+    public void setUp() throws IOException {
+        cache = new ConfigurationCache(folder.newFolder("cache").toPath());
+        file = folder.newFile("test.conf").toPath().toAbsolutePath();
+        change("value = 1\n", MODIFIED);
+        hash = Hashing.murmur3_128().hashBytes(Files.readAllBytes(file));
+    }
+
+    @Test
+    public void readsTheEntryOfAnUnchangedFile() throws IOException {
+        final FileStamp stamp = stamp(MODIFIED + FileStamp.GRANULARITY + 1L);
+        cache.write(file, stamp, hash, DEFAULTS, node(1));
+
+        final ConfigurationCache.Entry entry = read(DEFAULTS);
+        assertNotNull(entry);
+        assertEquals(1, entry.node.getNode("value").getInt());
+        assertEquals(hash, entry.hash);
+        assertEquals(stamp.size, entry.stamp.size);
+        assertEquals(MODIFIED, entry.stamp.modified);
+    }
+
+    @Test
+    public void ignoresTheEntryWhenTheSizeChanged() throws IOException {
+        cache.write(file, stamp(MODIFIED + FileStamp.GRANULARITY + 1L), hash, DEFAULTS, node(1));
+        change("value = 10\n", MODIFIED);
+
+        assertNull(read(DEFAULTS));
+    }
+
+    @Test
+    public void ignoresTheEntryWhenTheModificationTimeChanged() throws IOException {
+        cache.write(file, stamp(MODIFIED + FileStamp.GRANULARITY + 1L), hash, DEFAULTS, node(1));
+        change("value = 2\n", MODIFIED + 1000L);
+
+        assertNull(read(DEFAULTS));
+    }
+
+    @Test
+    public void ignoresAnEntryStampedWithinTheGranularity() throws IOException {
+        // The file could still change without a newer modification time.
+        cache.write(file, stamp(MODIFIED + FileStamp.GRANULARITY), hash, DEFAULTS, node(1));
+
+        assertNull(read(DEFAULTS));
+    }
+
+    @Test
+    public void ignoresTheEntryWhenTheDefaultsChanged() throws IOException {
+        cache.write(file, stamp(MODIFIED + FileStamp.GRANULARITY + 1L), hash, DEFAULTS, node(1));
+
+        assertNull(read(Hashing.murmur3_128().hashInt(2)));
+    }
+
+    private void change(String content, long modified) throws IOException {
+        Files.write(file, content.getBytes(UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified));
+    }
+
+    private BasicFileAttributes attributes() throws IOException {
+        return Files.readAttributes(file, BasicFileAttributes.class);
+    }
+
+    private FileStamp stamp(long now) throws IOException {
+        return FileStamp.of(attributes(), now);
+    }
+
+    private ConfigurationCache.Entry read(HashCode defaults) throws IOException {
+        return cache.read(file, attributes(), defaults, ConfigurationOptions.defaults());
+    }
+
+    private static CommentedConfigurationNode node(int value) {
+        final CommentedConfigurationNode node = SimpleCommentedConfigurationNode.root();
+        node.getNode("value").setValue(value);
+        return node;
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * This file is part of MinigameCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2016 - 2016 MinigameCore <http://minigamecore.github.io>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package io.github.minigamecore.plugin.util.logger;
+
+import static com.google.common.base.Throwables.getStackTraceAsString;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+
+import io.github.minigamecore.plugin.util.logger.LoggingSettings.FsyncPolicy;
+import io.github.minigamecore.plugin.util.logger.MinigameCoreLoggerUtil.Level;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.helpers.NOPLogger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class LogJournalTest {
+
+    private static final MinigameCoreLogger LOGGER = new MinigameCoreLogger("test");
+    // Pads every record to about a kilobyte, so a few of them fill the journal.
+    private static final String PADDING = new String(new char[1000]).replace('\0', '.');
+
+    @Rule public final TemporaryFolder folder = new TemporaryFolder();
+    private Path journalPath;
+    private Path segment;
+    private LogDirectory directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = LogDirectory.open(folder.newFolder("logs").toPath(), NOPLogger.NOP_LOGGER);
+        journalPath = directory.getPath().resolve("journal.dat");
+        segment = directory.next("2016-01-01", LoggingSettings.SegmentFormat.TEXT);
+    }
+
+    @Test
+    public void recoversTheRecordsTheWriterDidNotWrite() throws IOException {
+        // Larger than the buffers of the writer, as the default journal size is.
+        final LogJournal journal = LogJournal.open(journalPath, 384 * 1024);
+        final TextLogWriter writer = new TextLogWriter(segment, FsyncPolicy.NEVER);
+        writer.setJournal(journal);
+        journal.checkpoint(-1L, segment, 0L);
+
+        // The writer writes its buffers a few times, the journal wraps around.
+        for (int i = 0; i < 1000; i++) {
+            log(journal, writer, i);
+        }
+
+        // Crash, what is still buffered by the writer is lost.
+        journal.close();
+
+        assertEquals(segment, LogJournal.recover(journalPath, directory, "2016-01-01"));
+        assertRecords(Files.readAllLines(segment, UTF_8), 1000);
+    }
+
+    @Test
+    public void skipsTheWrittenRecordsWhenTheJournalWrapped() throws IOException {
+        final LogJournal journal = LogJournal.open(journalPath, 16 * 1024);
+        final TextLogWriter writer = new TextLogWriter(segment, FsyncPolicy.NEVER);
+        writer.setJournal(journal);
+
+        // Far more than the journal holds, all of it written to the file.
+        for (int i = 0; i < 100; i++) {
+            log(journal, writer, i);
+        }
+
+        writer.flush();
+
+        // Still buffered by the writer when it crashes.
+        for (int i = 100; i < 105; i++) {
+            log(journal, writer, i);
+        }
+
+        journal.close();
+
+        assertEquals(segment, LogJournal.recover(journalPath, directory, "2016-01-01"));
+        assertRecords(Files.readAllLines(segment, UTF_8), 105);
+    }
+
+    @Test
+    public void ignoresACheckpointWhoseWriteWasLost() throws IOException {
+        final LogJournal journal = LogJournal.open(journalPath, 384 * 1024);
+        final TextLogWriter writer = new TextLogWriter(segment, FsyncPolicy.NEVER);
+        writer.setJournal(journal);
+
+        for (int i = 0; i < 50; i++) {
+            log(journal, writer, i);
+        }
+
+        writer.flush();
+
+        for (int i = 50; i < 100; i++) {
+            log(journal, writer, i);
+        }
+
+        // Crash right after the checkpoint for the next write was taken.
+        journal.checkpoint(99L, segment, writer.size());
+        journal.close();
+
+        assertEquals(segment, LogJournal.recover(journalPath, directory, "2016-01-01"));
+        assertRecords(Files.readAllLines(segment, UTF_8), 100);
+    }
+
+    @Test
+    public void journalsTheStackTrace() throws IOException {
+        final LogJournal journal = LogJournal.open(journalPath, 384 * 1024);
+        final LogRecord record = new LogRecord();
+        final Exception exception = new IllegalStateException("Broken");
+        Files.createFile(segment);
+        journal.checkpoint(-1L, segment, 0L);
+        record.set(0L, Level.WARN, LOGGER, null, LogRecord.SAVE, "Failed {} times", 2, 3, exception, null, null);
+        record.sequence = 0L;
+        journal.append(record);
+        journal.close();
+
+        assertEquals(segment, LogJournal.recover(journalPath, directory, "2016-01-01"));
+        final String stamp = LogLines.formatTime(0L);
+        final StringBuilder expected = new StringBuilder();
+        LogLines.formatLine(expected, stamp, Level.WARN, LOGGER.getName(), "Failed 3 times").append('\n');
+        LogLines.formatLine(expected, stamp, Level.WARN, LOGGER.getName(), getStackTraceAsString(exception)).append('\n');
+        assertEquals(expected.toString(), new String(Files.readAllBytes(segment), UTF_8));
+    }
+
+    private static void log(LogJournal journal, LogWriter writer, int sequence) throws IOException {
+        final LogRecord record = new LogRecord();
+        record.set(sequence * 1000000000L, Level.INFO, LOGGER, null, LogRecord.SAVE, "Record {} {}", 2, sequence, PADDING, null, null);
+        record.sequence = sequence;
+        journal.append(record);
+        writer.append(record);
+        writer.mark(sequence);
+    }
+
+    private static void assertRecords(List<String> lines, int count) {
+        assertEquals(count, lines.size());
+
+        for (int i = 0; i < count; i++) {
+            final StringBuilder expected = new StringBuilder();
+            LogLines.formatLine(expected, LogLines.formatTime(i * 1000000000L), Level.INFO, LOGGER.getName(), "Record " + i + " " + PADDING);
+            assertEquals(expected.toString(), lines.get(i));
+        }
+    }
+
+}